@@ -0,0 +1,63 @@
+// k6 load test for POST /api/transactions/authorize.
+// Run the service once with platform threads and once with VIRTUAL_THREADS=true, then compare.
+//
+//   k6 run loadtest/authorize.js
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=400 -e DURATION=2m loadtest/authorize.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERS = Number(__ENV.USERS || 50);
+
+export const options = {
+    scenarios: {
+        authorize: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Number(__ENV.VUS || 200) },
+                { duration: __ENV.DURATION || '1m', target: Number(__ENV.VUS || 200) },
+                { duration: '10s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{name:authorize}': ['p(95)<250'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    const run = Date.now();
+    const tokens = [];
+    for (let i = 0; i < USERS; i++) {
+        const creds = JSON.stringify({ username: `load-${run}-${i}`, password: 'load-test-password' });
+        http.post(`${BASE_URL}/api/public/register`, creds, { headers: JSON_HEADERS });
+        const res = http.post(`${BASE_URL}/api/public/login`, creds, { headers: JSON_HEADERS });
+        check(res, { 'login 200': (r) => r.status === 200 });
+        tokens.push(res.json('token'));
+    }
+    return { tokens };
+}
+
+export default function (data) {
+    const token = data.tokens[(__VU + __ITER) % data.tokens.length];
+    // A small device pool per user: mostly known devices, occasionally a new one (step-up path).
+    const device = `dev-${__VU % 4}${Math.random() < 0.05 ? '-' + __ITER : ''}`;
+    const res = http.post(
+        `${BASE_URL}/api/transactions/authorize`,
+        JSON.stringify({ actionType: 'TRANSFER', amount: (Math.random() * 1500).toFixed(2) }),
+        {
+            headers: {
+                ...JSON_HEADERS,
+                Authorization: `Bearer ${token}`,
+                'X-Device-Id': device,
+                'X-Country': Math.random() < 0.02 ? 'FR' : 'PL',
+            },
+            tags: { name: 'authorize' },
+        },
+    );
+    check(res, { 'authorize 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,33 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.bench;
+
+import java.lang.reflect.Field;
+
+/**
+ * Small helpers for wiring Spring components outside of a context.
+ *
+ * <p>Benchmarks construct components directly and inject {@code @Value} fields reflectively,
+ * mirroring what {@code ReflectionTestUtils} does in unit tests.</p>
+ */
+public final class BenchSupport {
+    private BenchSupport() { }
+
+    /**
+     * Sets a (possibly private) field declared on the target's class or one of its superclasses.
+     */
+    public static void setField(Object target, String name, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field f = type.getDeclaredField(name);
+                f.setAccessible(true);
+                f.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot set field " + name, e);
+            }
+        }
+        throw new IllegalArgumentException("No field '" + name + "' on " + target.getClass().getName());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.security;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.bench.BenchSupport;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT issue/verify cost and the authority mapping done by {@link JwtAuthFilter} on every request.
+ *
+ * <p>{@code fastVerify=false} measures the JJWT-only path; {@code true} the lean HS256 path.
+ * {@link #parseThroughput()} reports tokens verified per second on one thread (i.e. per core).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+
+    @Param({"true", "false"})
+    public boolean fastVerify;
+
+    private JwtService jwt;
+    private UUID userId;
+    private String userToken;
+    private JwtPrincipal userPrincipal;
+    private JwtPrincipal adminPrincipal;
+
+    @Setup
+    public void setUp() {
+        jwt = new JwtService();
+        BenchSupport.setField(jwt, "issuer", "stepup-auth-service");
+        BenchSupport.setField(jwt, "secret", "bench-secret-bench-secret-bench-secret-bench-secret");
+        BenchSupport.setField(jwt, "ttl", Duration.ofHours(2));
+        BenchSupport.setField(jwt, "fastVerify", fastVerify);
+        jwt.init();
+
+        userId = UUID.randomUUID();
+        userToken = jwt.issueToken(userId, "demo", List.of("USER"));
+        userPrincipal = jwt.parse(userToken);
+        adminPrincipal = new JwtPrincipal(userId, "admin", List.of("USER", "ADMIN"));
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwt.issueToken(userId, "demo", List.of("USER"));
+    }
+
+    @Benchmark
+    public JwtPrincipal parse() {
+        return jwt.parse(userToken);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public JwtPrincipal parseThroughput() {
+        return jwt.parse(userToken);
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> toAuthoritiesUser() {
+        return JwtAuthFilter.toAuthorities(userPrincipal);
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> toAuthoritiesAdmin() {
+        return JwtAuthFilter.toAuthorities(adminPrincipal);
+    }
+}
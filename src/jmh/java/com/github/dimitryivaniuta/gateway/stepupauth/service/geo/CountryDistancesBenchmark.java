@@ -0,0 +1,39 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.geo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the impossible-travel distance lookup, done once per authorize call.
+ *
+ * <p>{@link #km()} is expected to report {@code gc.alloc.rate.norm} of 0.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CountryDistancesBenchmark {
+
+    @Param({"DE:AT", "DE:BR", "us:nz", "DE:ZZ"})
+    public String pair;
+
+    private CountryDistances distances;
+    private String from;
+    private String to;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = CountryDistances.class.getClassLoader().getResourceAsStream(TravelService.CENTROIDS)) {
+            distances = CountryDistances.load(in);
+        }
+        from = pair.substring(0, 2);
+        to = pair.substring(3);
+    }
+
+    @Benchmark
+    public int km() {
+        return distances.km(from, to);
+    }
+}
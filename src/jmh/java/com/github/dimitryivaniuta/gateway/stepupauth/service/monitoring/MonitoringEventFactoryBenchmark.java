@@ -0,0 +1,48 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and serializing one {@code RISK_DECISION_MADE} payload, as done on every authorize.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MonitoringEventFactoryBenchmark {
+
+    private MonitoringEventFactory factory;
+    private UUID userId;
+    private UUID decisionId;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        factory = new MonitoringEventFactory(mapper);
+        userId = UUID.randomUUID();
+        decisionId = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public Map<String, Object> base() {
+        return factory.base(MonitoringEvents.RISK_DECISION_MADE, userId, decisionId);
+    }
+
+    @Benchmark
+    public String baseAndToJson() {
+        var e = factory.base(MonitoringEvents.RISK_DECISION_MADE, userId, decisionId);
+        e.putAll(Map.of(
+                "riskScore", 80,
+                "riskLevel", "HIGH",
+                "reasons", "NEW_DEVICE,NEW_COUNTRY",
+                "decision", "STEP_UP_REQUIRED"
+        ));
+        return factory.toJson(e);
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One OTP lifecycle (store, one wrong attempt, correct verify) per backend.
+ *
+ * <p>{@link #legacyTwoKeys()} replays the original layout as the baseline: two SETs with their own
+ * TTL on store, then GET + INCR per attempt and two DELs on success (up to four round trips).
+ * Redis benchmarks need a running Redis: {@code -Dbench.redis.host}/{@code -Dbench.redis.port}
+ * (defaults: the docker-compose instance on localhost:6382).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OtpStoreBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String CODE = "123456";
+    private static final String WRONG = "654321";
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private RedisHashOtpStore redisHash;
+    private InMemoryOtpStore memory;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("bench.redis.host", "localhost"),
+                Integer.getInteger("bench.redis.port", 6382)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+        redisHash = new RedisHashOtpStore(redis);
+        memory = new InMemoryOtpStore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        memory.shutdown();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean legacyTwoKeys() {
+        UUID id = UUID.randomUUID();
+        String otpKey = "otp:" + id;
+        String attemptsKey = "otp_attempts:" + id;
+        redis.opsForValue().set(otpKey, CODE, TTL);
+        redis.opsForValue().set(attemptsKey, "0", TTL);
+
+        legacyVerify(otpKey, attemptsKey, WRONG);
+        return legacyVerify(otpKey, attemptsKey, CODE);
+    }
+
+    @Benchmark
+    public OtpStore.Result redisHash() {
+        return lifecycle(redisHash);
+    }
+
+    @Benchmark
+    public OtpStore.Result inMemory() {
+        return lifecycle(memory);
+    }
+
+    private static OtpStore.Result lifecycle(OtpStore store) {
+        UUID id = UUID.randomUUID();
+        store.store(id, CODE, TTL);
+        store.verify(id, WRONG, MAX_ATTEMPTS);
+        return store.verify(id, CODE, MAX_ATTEMPTS);
+    }
+
+    private boolean legacyVerify(String otpKey, String attemptsKey, String code) {
+        String expected = redis.opsForValue().get(otpKey);
+        if (expected == null) return false;
+        Long attempts = redis.opsForValue().increment(attemptsKey);
+        if (attempts != null && attempts > MAX_ATTEMPTS) return false;
+        if (!expected.equals(code)) return false;
+        redis.delete(otpKey);
+        redis.delete(attemptsKey);
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.bench.BenchSupport;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link RiskEngine#assess} call for the three signal mixes seen on authorize.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RiskEngineBenchmark {
+
+    private RiskEngine engine;
+    private BigDecimal smallAmount;
+    private BigDecimal largeAmount;
+
+    @Setup
+    public void setUp() {
+        engine = new RiskEngine();
+        BenchSupport.setField(engine, "highAmountThreshold", new BigDecimal("1000.00"));
+        BenchSupport.setField(engine, "stepUpThreshold", 70);
+        BenchSupport.setField(engine, "newDeviceScore", 50);
+        BenchSupport.setField(engine, "newCountryScore", 30);
+        BenchSupport.setField(engine, "highAmountScore", 60);
+        smallAmount = new BigDecimal("10.00");
+        largeAmount = new BigDecimal("5000.00");
+    }
+
+    /** Known device, home country, small amount: the common APPROVED path. */
+    @Benchmark
+    public RiskAssessment noSignals() {
+        return engine.assess(false, false, smallAmount);
+    }
+
+    /** Every signal fires: the worst case for reason building. */
+    @Benchmark
+    public RiskAssessment allSignals() {
+        return engine.assess(true, true, largeAmount);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring cost versus rule count.
+ *
+ * <p>{@link #compiled()} scores through {@link CompiledRules} (flat tables); {@link #interpreted()} walks
+ * the same rules one by one, which is what a straightforward rule engine would do, and grows linearly.
+ * Rules are synthetic: random action/country scopes, signal subsets and amount thresholds drawn from
+ * small pools, as in a real rule file.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RiskRulesBenchmark {
+
+    private static final String[] ACTIONS = {"TRANSFER", "PAYOUT", "CARD_ADD", "LOGIN", "PROFILE_CHANGE"};
+    private static final String[] COUNTRIES = {"PL", "DE", "FR", "GB", "US", "UA", "NG", "BR", "IN", "CN"};
+    private static final BigDecimal[] AMOUNTS = {
+            new BigDecimal("100"), new BigDecimal("500"), new BigDecimal("1000"),
+            new BigDecimal("5000"), new BigDecimal("10000")};
+    private static final int REQUESTS = 1024;
+
+    @Param({"3", "30", "300", "1000"})
+    public int ruleCount;
+
+    private CompiledRules compiled;
+    private List<RiskRuleSet.Rule> rules;
+    private String[] reqAction;
+    private String[] reqCountry;
+    private long[] reqSignals;
+    private BigDecimal[] reqAmount;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        rules = new ArrayList<>(ruleCount);
+        RiskSignal[] signals = RiskSignal.values();
+        for (int i = 0; i < ruleCount; i++) {
+            List<String> actions = rnd.nextInt(3) == 0 ? null : List.of(ACTIONS[rnd.nextInt(ACTIONS.length)]);
+            List<String> countries = rnd.nextInt(2) == 0 ? null : List.of(COUNTRIES[rnd.nextInt(COUNTRIES.length)]);
+            List<RiskSignal> required = rnd.nextBoolean() ? List.of(signals[rnd.nextInt(signals.length)]) : null;
+            BigDecimal amount = rnd.nextBoolean() ? AMOUNTS[rnd.nextInt(AMOUNTS.length)] : null;
+            rules.add(new RiskRuleSet.Rule("r" + i, actions, countries, required, amount, 1 + rnd.nextInt(40), "R" + (i % 16)));
+        }
+        compiled = CompiledRules.compile(new RiskRuleSet("bench", 70, Map.of(), rules));
+
+        reqAction = new String[REQUESTS];
+        reqCountry = new String[REQUESTS];
+        reqSignals = new long[REQUESTS];
+        reqAmount = new BigDecimal[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            reqAction[i] = ACTIONS[rnd.nextInt(ACTIONS.length)];
+            reqCountry[i] = COUNTRIES[rnd.nextInt(COUNTRIES.length)];
+            reqSignals[i] = rnd.nextInt(RiskSignal.maskCount());
+            reqAmount[i] = BigDecimal.valueOf(rnd.nextInt(20_000));
+        }
+    }
+
+    @Benchmark
+    public RiskAssessment compiled() {
+        int i = next++ & (REQUESTS - 1);
+        return compiled.score(reqAction[i], reqCountry[i], reqSignals[i], reqAmount[i]);
+    }
+
+    @Benchmark
+    public int interpreted() {
+        int i = next++ & (REQUESTS - 1);
+        int score = 0;
+        StringBuilder reasons = new StringBuilder();
+        for (RiskRuleSet.Rule r : rules) {
+            if (r.actionTypes() != null && !r.actionTypes().contains(reqAction[i])) continue;
+            if (r.countries() != null && !r.countries().contains(reqCountry[i])) continue;
+            if (r.signals() != null && (reqSignals[i] & r.signals().get(0).bit()) == 0) continue;
+            if (r.amountAtLeast() != null && reqAmount[i].compareTo(r.amountAtLeast()) < 0) continue;
+            score += r.score();
+            if (!reasons.isEmpty()) reasons.append(',');
+            reasons.append(r.reason());
+        }
+        return score + reasons.length();
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.signal;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of hashing the {@code X-Device-Id} header, done once per authorize call.
+ *
+ * <p>{@link #legacySha256Hex()} is the original implementation (digest lookup per call,
+ * {@code String.format} per byte), kept here as the baseline.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignalHasherBenchmark {
+
+    @Param({"device-abc-1", "3f1c9a52-5d7e-4c8b-9a61-0f2e7b4d8c13"})
+    public String deviceId;
+
+    @Benchmark
+    public String legacySha256Hex() {
+        return legacySha256(deviceId);
+    }
+
+    @Benchmark
+    public String sha256Hex() {
+        return SignalHasher.sha256(deviceId);
+    }
+
+    @Benchmark
+    public byte[] sha256Bytes() {
+        return SignalHasher.sha256Bytes(deviceId);
+    }
+
+    private static String legacySha256(String raw) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] d = md.digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(d.length * 2);
+            for (byte b : d) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to hash", e);
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.api;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.CursorPage;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.MonitoringEventDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpChallengeDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.admin.AdminOutboxCommandService;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.admin.AdminQueryService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskEngine;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskRulesLoader;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskShadowScorer;
 import jakarta.transaction.Transactional;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Admin / operations endpoints.
@@ -31,32 +41,45 @@ public class AdminController {
 
     private final AdminQueryService queries;
     private final AdminOutboxCommandService outboxCommands;
+    private final RiskEngine riskEngine;
+    private final RiskRulesLoader riskRules;
+    private final RiskShadowScorer riskShadow;
 
-    public AdminController(AdminQueryService queries, AdminOutboxCommandService outboxCommands) {
+    public AdminController(AdminQueryService queries, AdminOutboxCommandService outboxCommands,
+                           RiskEngine riskEngine, RiskRulesLoader riskRules, RiskShadowScorer riskShadow) {
         this.queries = queries;
         this.outboxCommands = outboxCommands;
+        this.riskEngine = riskEngine;
+        this.riskRules = riskRules;
+        this.riskShadow = riskShadow;
     }
 
+    /**
+     * Newest first; pass the {@code X-Next-Cursor} header of a page as {@code cursor} to get the next one.
+     */
     @GetMapping("/risk-decisions")
-    public List<RiskDecisionDto> riskDecisions(
-            @RequestParam(name = "limit", defaultValue = "200") int limit
+    public ResponseEntity<List<RiskDecisionDto>> riskDecisions(
+            @RequestParam(name = "limit", defaultValue = "200") int limit,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        return queries.listRiskDecisions(limit);
+        return queries.listRiskDecisions(limit, cursor).toResponse();
     }
 
     @GetMapping("/stepup-challenges")
-    public List<StepUpChallengeDto> stepupChallenges(
-            @RequestParam(name = "limit", defaultValue = "200") int limit
+    public ResponseEntity<List<StepUpChallengeDto>> stepupChallenges(
+            @RequestParam(name = "limit", defaultValue = "200") int limit,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        return queries.listStepUpChallenges(limit);
+        return queries.listStepUpChallenges(limit, cursor).toResponse();
     }
 
     @GetMapping("/outbox")
-    public List<OutboxEventDto> outbox(
+    public ResponseEntity<List<OutboxEventDto>> outbox(
             @RequestParam(name = "eventType", required = false) String eventType,
-            @RequestParam(name = "limit", defaultValue = "200") int limit
+            @RequestParam(name = "limit", defaultValue = "200") int limit,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        return queries.listOutbox(eventType, limit);
+        return queries.listOutbox(eventType, limit, cursor).toResponse();
     }
 
     /**
@@ -71,12 +94,47 @@ public class AdminController {
     }
 
     /**
-     * Returns monitoring events (projection of monitoring outbox events).
+     * Returns monitoring events (projection of monitoring outbox events), newest first, optionally for one
+     * user and/or within {@code [from, to)} (ISO-8601 instants).
      */
     @GetMapping("/monitoring/events")
-    public List<MonitoringEventDto> monitoringEvents(
-            @RequestParam(name = "limit", defaultValue = "200") int limit
+    public ResponseEntity<List<MonitoringEventDto>> monitoringEvents(
+            @RequestParam(name = "limit", defaultValue = "200") int limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "userId", required = false) UUID userId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
     ) {
-        return queries.listMonitoringEvents(limit);
+        return queries.listMonitoringEvents(limit, cursor, userId, from, to).toResponse();
+    }
+
+    /**
+     * Active risk rule set (version, rule count, compiled tables).
+     */
+    @GetMapping("/risk-rules")
+    public RiskEngine.RulesInfo riskRules() {
+        return riskEngine.rulesInfo();
+    }
+
+    /**
+     * Re-reads the rule source now instead of waiting for the next poll.
+     *
+     * <p>An invalid rule set is rejected with 400 and the active rules stay in place.</p>
+     */
+    @PostMapping("/risk-rules/reload")
+    public RiskEngine.RulesInfo reloadRiskRules() {
+        try {
+            return riskRules.reload();
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Risk rules rejected: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Shadow scoring results: per candidate rule set, step-up agreement with the live rules and score histograms.
+     */
+    @GetMapping("/risk-shadow")
+    public RiskShadowScorer.ShadowReport riskShadow() {
+        return riskShadow.report();
     }
 }
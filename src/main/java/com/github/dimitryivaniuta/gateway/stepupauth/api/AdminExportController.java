@@ -0,0 +1,123 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.api;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.ExportProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.export.DecisionExportFilter;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.export.ExportFormat;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.export.ExportService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.export.OutboxExportFilter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk exports for compliance: all matching rows, oldest first, streamed as NDJSON or CSV (optionally
+ * gzipped) while they are read. Time bounds are ISO-8601 instants, {@code [from, to)}.
+ *
+ * <p>Security: requires {@code ROLE_ADMIN} from JWT claim {@code roles}.</p>
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+@RequestMapping("/api/admin/exports")
+public class AdminExportController {
+
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final ExportService exports;
+    private final ExportProperties props;
+
+    public AdminExportController(ExportService exports, ExportProperties props) {
+        this.exports = exports;
+        this.props = props;
+    }
+
+    @GetMapping("/risk-decisions")
+    public WebAsyncTask<Void> riskDecisions(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "userId", required = false) UUID userId,
+            @RequestParam(name = "decision", required = false) String decision,
+            @RequestParam(name = "level", required = false) String level,
+            HttpServletResponse response
+    ) {
+        checkRange(from, to);
+        var filter = new DecisionExportFilter(from, to, userId, blankToNull(decision), blankToNull(level));
+        ExportFormat fmt = ExportFormat.parse(format);
+        return stream(response, "risk-decisions", fmt, gzip, out -> exports.exportDecisions(filter, fmt, out));
+    }
+
+    @GetMapping("/outbox")
+    public WebAsyncTask<Void> outbox(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "eventType", required = false) String eventType,
+            @RequestParam(name = "status", required = false) String status,
+            HttpServletResponse response
+    ) {
+        checkRange(from, to);
+        var filter = new OutboxExportFilter(from, to, blankToNull(eventType), blankToNull(status));
+        ExportFormat fmt = ExportFormat.parse(format);
+        return stream(response, "outbox", fmt, gzip, out -> exports.exportOutbox(filter, fmt, out));
+    }
+
+    /** The body of an export: writes everything to {@code out}. */
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Runs the export as an async task with its own timeout ({@code app.export.timeout}), writing straight
+     * to the response; the export slot is released when the request completes, whichever way it ends
+     * (finished, timed out, failed, client gone, or the task never ran).
+     */
+    private WebAsyncTask<Void> stream(HttpServletResponse response, String name, ExportFormat format,
+                                      boolean gzip, Export export) {
+        exports.acquire();
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        WebAsyncTask<Void> task = new WebAsyncTask<>(props.timeout().toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                try (GZIPOutputStream zipped = new GZIPOutputStream(out, GZIP_BUFFER)) {
+                    export.writeTo(zipped);
+                }
+            } else {
+                export.writeTo(out);
+            }
+            out.flush();
+            return null;
+        });
+        task.onCompletion(exports::release);
+        return task;
+    }
+
+    private static void checkRange(Instant from, Instant to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+    }
+
+    private static String blankToNull(String v) {
+        return v == null || v.isBlank() ? null : v.trim();
+    }
+}
@@ -1,8 +1,12 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.api;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.CursorPage;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.RiskDecisionRepository;
 import com.github.dimitryivaniuta.gateway.stepupauth.security.JwtPrincipal;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.paging.KeysetCursor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,16 +25,19 @@ public class MeController {
     }
 
     /**
-     * Returns last N risk decisions for the current user.
+     * Returns the current user's risk decisions, newest first, one keyset page at a time.
      */
     @GetMapping("/risk-decisions")
-    public List<RiskDecisionDto> myDecisions(@AuthenticationPrincipal JwtPrincipal principal) {
-        return decisions.findTop200ByUserIdOrderByCreatedAtDesc(principal.userId())
-                .stream()
-                .map(e -> new RiskDecisionDto(
-                        e.getId(), e.getUserId(), e.getActionType(), e.getAmount(), e.getCountry(),
-                        e.getRiskScore(), e.getRiskLevel(), e.getDecision(), e.getCreatedAt(), e.getStepUpChallengeId()
-                ))
-                .toList();
+    public ResponseEntity<List<RiskDecisionDto>> myDecisions(@AuthenticationPrincipal JwtPrincipal principal,
+                                                             @RequestParam(name = "limit", defaultValue = "50") int limit,
+                                                             @RequestParam(name = "cursor", required = false) String cursor) {
+        int safe = Math.min(Math.max(limit, 1), 200);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit fetch = Limit.of(safe + 1);
+
+        var rows = after == null
+                ? decisions.findUserPage(principal.userId(), fetch)
+                : decisions.findUserPageAfter(principal.userId(), after.createdAt(), after.uuid(), fetch);
+        return CursorPage.of(rows, safe, d -> KeysetCursor.encode(d.createdAt(), d.id())).toResponse();
     }
 }
@@ -4,20 +4,31 @@ import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpVerifyRequest
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpVerifyResponse;
 import com.github.dimitryivaniuta.gateway.stepupauth.security.CurrentUser;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.StepUpService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.idempotency.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
-/** OTP verification endpoint for step-up. */
+/** OTP verification endpoint for step-up (optional {@code Idempotency-Key}, see {@link IdempotencyService}). */
 @RestController
 @RequestMapping("/api/stepup")
 public class StepUpController {
     private final StepUpService stepUp;
-    public StepUpController(StepUpService stepUp) { this.stepUp = stepUp; }
+    private final IdempotencyService idempotency;
+    public StepUpController(StepUpService stepUp, IdempotencyService idempotency) {
+        this.stepUp = stepUp;
+        this.idempotency = idempotency;
+    }
 
     @PostMapping("/{challengeId}/verify")
-    public StepUpVerifyResponse verify(@PathVariable UUID challengeId, @Valid @RequestBody StepUpVerifyRequest req) {
-        return stepUp.verify(CurrentUser.userId().orElseThrow(), challengeId, req.otp());
+    public StepUpVerifyResponse verify(@PathVariable UUID challengeId,
+                                       @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                       @Valid @RequestBody StepUpVerifyRequest req) {
+        UUID userId = CurrentUser.userId().orElseThrow();
+        return idempotency.execute(userId, "verify", idempotencyKey, List.of(challengeId, req),
+                StepUpVerifyResponse.class,
+                () -> stepUp.verify(userId, challengeId, req.otp()));
     }
 }
@@ -1,28 +1,61 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.api;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeBatchRequest;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeBatchResponse;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeTransactionRequest;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeTransactionResponse;
 import com.github.dimitryivaniuta.gateway.stepupauth.security.CurrentUser;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.BatchAuthorizationService;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.RiskDecisionService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.idempotency.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Risky action authorization endpoint.
+ *
+ * <p>Both endpoints accept an optional {@code Idempotency-Key}: a retry with the same key (and the same
+ * request) gets the original response instead of a new decision.</p>
  */
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
     private final RiskDecisionService decisions;
+    private final BatchAuthorizationService batch;
+    private final IdempotencyService idempotency;
 
-    public TransactionController(RiskDecisionService decisions) {
+    public TransactionController(RiskDecisionService decisions, BatchAuthorizationService batch,
+                                 IdempotencyService idempotency) {
         this.decisions = decisions;
+        this.batch = batch;
+        this.idempotency = idempotency;
     }
 
     @PostMapping("/authorize")
     public AuthorizeTransactionResponse authorize(@RequestHeader("X-Device-Id") String deviceId,
                                                   @RequestHeader("X-Country") String country,
+                                                  @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
                                                   @Valid @RequestBody AuthorizeTransactionRequest req) {
-        return decisions.authorize(CurrentUser.userId().orElseThrow(), deviceId, country, req);
+        UUID userId = CurrentUser.userId().orElseThrow();
+        return idempotency.execute(userId, "authorize", idempotencyKey, List.of(deviceId, country, req),
+                AuthorizeTransactionResponse.class,
+                () -> decisions.authorize(userId, deviceId, country, req));
+    }
+
+    /**
+     * Authorizes many actions in one call (basket of transfers, bulk payout file).
+     */
+    @PostMapping("/authorize-batch")
+    public AuthorizeBatchResponse authorizeBatch(@RequestHeader("X-Device-Id") String deviceId,
+                                                 @RequestHeader("X-Country") String country,
+                                                 @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                                 @Valid @RequestBody AuthorizeBatchRequest req) {
+        UUID userId = CurrentUser.userId().orElseThrow();
+        return idempotency.execute(userId, "authorize-batch", idempotencyKey, List.of(deviceId, country, req),
+                AuthorizeBatchResponse.class,
+                () -> batch.authorize(userId, deviceId, country, req));
     }
 }
@@ -0,0 +1,15 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Batch authorization request: several actions from one user/device/country.
+ */
+public record AuthorizeBatchRequest(
+        @NotEmpty @Size(max = 100) List<@Valid @NotNull AuthorizeTransactionRequest> items) {
+}
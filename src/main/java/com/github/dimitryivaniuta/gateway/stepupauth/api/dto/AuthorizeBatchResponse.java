@@ -0,0 +1,12 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.api.dto;
+
+import java.util.List;
+
+/**
+ * Batch authorization response; {@code results} are in request order.
+ *
+ * <p>All step-up items of one batch share a single challenge (same {@code challengeId}).</p>
+ */
+public record AuthorizeBatchResponse(
+        List<AuthorizeTransactionResponse> results) {
+}
@@ -0,0 +1,42 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.api.dto;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list (newest first).
+ *
+ * <p>Sent as a plain JSON array of {@code items}, as the unpaged endpoints were, with the cursor of the next
+ * page in the {@value #NEXT_CURSOR_HEADER} header; see {@link #toResponse()}.</p>
+ *
+ * @param items      rows of this page
+ * @param nextCursor opaque value for the {@code cursor} parameter of the next page; {@code null} on the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /** Response header with {@link #nextCursor}; absent on the last page. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * @param rows     up to {@code limit + 1} rows; an extra row only tells that another page exists
+     * @param cursorOf cursor pointing just past a row
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, limit));
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /** @return {@code items} as the body, {@code nextCursor} (if any) in {@value #NEXT_CURSOR_HEADER} */
+    public ResponseEntity<List<T>> toResponse() {
+        var response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -1,11 +1,16 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.config;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+import java.util.Map;
+
 /** Kafka topic definitions. */
 @Configuration
 public class KafkaConfig {
@@ -14,4 +19,15 @@ public class KafkaConfig {
     public NewTopic monitoringTopic(@Value("${app.kafka.topics.monitoring}") String name) {
         return TopicBuilder.name(name).partitions(3).replicas(1).build();
     }
+
+    /** Producer batching/compression from {@code app.outbox.producer}. */
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer outboxProducerCustomizer(OutboxProperties props) {
+        var p = props.producer();
+        return factory -> factory.updateConfigs(Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, (int) p.linger().toMillis(),
+                ProducerConfig.BATCH_SIZE_CONFIG, (int) p.batchSize().toBytes(),
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, p.compression()
+        ));
+    }
 }
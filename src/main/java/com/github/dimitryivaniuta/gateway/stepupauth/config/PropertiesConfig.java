@@ -1,8 +1,18 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.config;
 
 import com.github.dimitryivaniuta.gateway.stepupauth.config.props.AppKafkaProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.DataSourceLimiterProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.DecisionJournalProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.ExportProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.IdempotencyProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.JwtCacheProperties;
 import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OtpProperties;
 import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.RiskRulesProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.RiskShadowProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.TravelProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.TrustProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +25,16 @@ import org.springframework.context.annotation.Configuration;
         AppKafkaProperties.class,
         OtpProperties.class,
         OutboxProperties.class,
+        JwtCacheProperties.class,
+        TrustProperties.class,
+        DataSourceLimiterProperties.class,
+        RiskRulesProperties.class,
+        RiskShadowProperties.class,
+        DecisionJournalProperties.class,
+        IdempotencyProperties.class,
+        ExportProperties.class,
+        VelocityProperties.class,
+        TravelProperties.class,
         KafkaProperties.class
 })
 public class PropertiesConfig {
@@ -0,0 +1,47 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.db;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.DataSourceLimiterProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in {@link ConcurrencyLimitedDataSource} when enabled.
+ *
+ * <p>Metrics: {@code db.limiter.available}, {@code db.limiter.waiting}.</p>
+ */
+@Configuration
+public class DataSourceLimiterConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceLimiterPostProcessor(ObjectProvider<DataSourceLimiterProperties> props,
+                                                            ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource ds) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                DataSourceLimiterProperties p = props.getObject();
+                if (!p.enabled()) {
+                    return bean;
+                }
+                int permits = p.maxConcurrency() > 0 ? p.maxConcurrency()
+                        : (ds instanceof HikariDataSource h ? h.getMaximumPoolSize() : 10);
+                var limited = new ConcurrencyLimitedDataSource(ds, permits, p.acquireTimeout());
+
+                registry.ifAvailable(r -> {
+                    Gauge.builder("db.limiter.available", limited, ConcurrencyLimitedDataSource::availablePermits).register(r);
+                    Gauge.builder("db.limiter.waiting", limited, ConcurrencyLimitedDataSource::waitingThreads).register(r);
+                });
+                return limited;
+            }
+        };
+    }
+}
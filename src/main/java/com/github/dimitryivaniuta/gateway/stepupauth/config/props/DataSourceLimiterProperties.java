@@ -0,0 +1,27 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limiter in front of the JDBC connection pool.
+ *
+ * <p>With virtual threads the number of concurrent requests is no longer capped by the Tomcat
+ * pool, so thousands of threads could queue inside Hikari and time out together. The limiter
+ * admits at most {@code maxConcurrency} connection holders and fails fast after {@code acquireTimeout}.</p>
+ *
+ * @param enabled        wrap the DataSource (defaults to on when virtual threads are on)
+ * @param maxConcurrency permits; {@code 0} means "Hikari maximum-pool-size"
+ * @param acquireTimeout max wait for a permit before the request fails with 503
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.datasource.limiter")
+public record DataSourceLimiterProperties(
+        boolean enabled,
+        @Min(0) int maxConcurrency,
+        @NotNull Duration acquireTimeout
+) { }
@@ -0,0 +1,38 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Write-behind journal for APPROVED decisions.
+ *
+ * <p>When enabled, an approved decision is appended to a local memory-mapped journal and the request
+ * returns once the journal is fsynced; a background flusher writes the decision, trust baseline and
+ * outbox rows to Postgres. The journal directory must be on local, persistent storage that survives a
+ * restart of the node (replay happens on startup).</p>
+ *
+ * @param enabled        opt-in; step-up decisions are always written synchronously
+ * @param directory      journal segments and the checkpoint file
+ * @param segmentSize    size of one mapped segment file (at most 1GB)
+ * @param flushBatchSize decisions written to Postgres per transaction
+ * @param flushInterval  how long the flusher waits for a first record before checking again
+ * @param maxPending     journaled but not yet flushed decisions; above this approvals are written synchronously
+ * @param syncTimeout    how long a request waits for its fsync before falling back to the synchronous path
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.decisions.journal")
+public record DecisionJournalProperties(
+        boolean enabled,
+        @NotBlank String directory,
+        @NotNull DataSize segmentSize,
+        @Min(1) int flushBatchSize,
+        @NotNull Duration flushInterval,
+        @Min(1) int maxPending,
+        @NotNull Duration syncTimeout
+) { }
@@ -0,0 +1,29 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Admin NDJSON/CSV exports.
+ *
+ * <p>An export is read in keyset chunks of {@code chunkSize} rows, each in its own short read-only
+ * transaction whose server-side cursor fetches {@code fetchSize} rows at a time, so neither memory nor
+ * transaction length grows with the export.</p>
+ *
+ * @param fetchSize     rows per cursor round trip
+ * @param chunkSize     rows per transaction
+ * @param maxConcurrent exports running at once on this node; more get {@code 429}
+ * @param timeout       async timeout of one export request (other async requests are not affected)
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.export")
+public record ExportProperties(
+        @Min(1) int fetchSize,
+        @Min(1) int chunkSize,
+        @Min(1) int maxConcurrent,
+        @NotNull Duration timeout
+) { }
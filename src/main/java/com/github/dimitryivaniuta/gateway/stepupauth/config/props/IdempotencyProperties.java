@@ -0,0 +1,30 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * {@code Idempotency-Key} handling for authorize and step-up verify.
+ *
+ * @param enabled         when false the header is ignored
+ * @param ttl             how long a completed response is replayed for the same (user, key)
+ * @param localMaxSize    responses kept in the in-process cache (Redis keeps them for other nodes)
+ * @param redis           share responses and in-flight markers across nodes through Redis
+ * @param inFlightTimeout how long a duplicate waits for the original request before getting {@code 409}
+ * @param pendingTtl      lifetime of the Redis in-flight marker; longer than the slowest action, or a
+ *                        duplicate on another node runs it again
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.idempotency")
+public record IdempotencyProperties(
+        boolean enabled,
+        @NotNull Duration ttl,
+        @Min(1) long localMaxSize,
+        boolean redis,
+        @NotNull Duration inFlightTimeout,
+        @NotNull Duration pendingTtl
+) { }
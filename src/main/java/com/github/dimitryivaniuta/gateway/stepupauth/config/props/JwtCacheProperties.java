@@ -0,0 +1,25 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Verified-token cache settings used by {@code JwtAuthFilter}.
+ *
+ * @param enabled         when false every request is fully parsed and verified
+ * @param maxSize         max number of verified tokens kept in memory
+ * @param negativeTtl     how long an invalid token is remembered as invalid
+ * @param negativeMaxSize max number of invalid tokens kept in memory
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.security.jwt.cache")
+public record JwtCacheProperties(
+        boolean enabled,
+        @Min(1) long maxSize,
+        @NotNull Duration negativeTtl,
+        @Min(1) long negativeMaxSize
+) { }
@@ -8,13 +8,22 @@ import java.time.Duration;
 /**
  * OTP settings.
  *
- * <p>Note: OTP TTL and attempts are enforced by {@code OtpService} using Redis.</p>
+ * <p>Note: OTP TTL and attempts are enforced by {@code OtpService} through the selected {@code OtpStore}.</p>
  */
 @Validated
 @ConfigurationProperties(prefix = "app.otp")
 public record OtpProperties(
         Duration ttl,
         int maxAttempts,
-        boolean devPreview
+        boolean devPreview,
+        Store store
 ) {
+
+    /** OTP storage backend. */
+    public enum Store {
+        /** One Redis hash per challenge (multi-node). */
+        REDIS,
+        /** In-process map with timing-wheel expiry (single node / tests). */
+        MEMORY
+    }
 }
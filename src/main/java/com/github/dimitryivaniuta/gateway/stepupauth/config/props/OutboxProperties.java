@@ -1,19 +1,76 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Name;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
 
 /**
  * Transactional outbox publisher settings.
+ *
+ * <p>A batch is sent to Kafka without waiting per record; {@code sendTimeout} bounds how long the
+ * publisher waits for the whole batch to be acknowledged.</p>
+ *
+ * <p>{@code publishInterval} is the safety-net poll; new events are picked up through {@code wakeup}
+ * (bound from {@code app.outbox.notify}; a record component cannot be named {@code notify}).</p>
+ *
+ * <p>{@code shards}: number of {@code aggregate_id} hash shards (keep it identical on all nodes; events
+ * of one aggregate always land in one shard and are published in order). {@code workers}: publisher
+ * threads per node; each holds a DB connection while publishing, so keep it below the pool size.</p>
  */
 @Validated
 @ConfigurationProperties(prefix = "app.outbox")
 public record OutboxProperties(
         boolean enabled,
         @Min(1) int batchSize,
-        @NotNull Duration publishInterval
-) { }
+        @NotNull Duration publishInterval,
+        @Min(1) int shards,
+        @Min(1) int workers,
+        @NotNull Duration sendTimeout,
+        @Valid @NotNull Producer producer,
+        @Valid @NotNull @Name("notify") Notify wakeup,
+        @Valid @NotNull Partitions partitions
+) {
+
+    /**
+     * Daily {@code outbox_event} partitions.
+     *
+     * @param premakeDays partitions created ahead of today
+     * @param retention   partitions that ended longer ago than this are dropped once fully published
+     */
+    public record Partitions(
+            @Min(1) int premakeDays,
+            @NotNull Duration retention
+    ) { }
+
+    /**
+     * Postgres LISTEN/NOTIFY wake-up of the publisher.
+     *
+     * @param enabled when false the publisher relies on polling every {@code publishInterval}
+     * @param channel notification channel (plain SQL identifier)
+     */
+    public record Notify(
+            boolean enabled,
+            @NotBlank @Pattern(regexp = "[a-z_][a-z0-9_]*") String channel
+    ) { }
+
+    /**
+     * Producer batching applied to the Kafka producer factory.
+     *
+     * @param linger      {@code linger.ms}: how long the producer waits to fill a record batch
+     * @param batchSize   {@code batch.size}: per-partition record batch size
+     * @param compression {@code compression.type} ({@code none}, {@code gzip}, {@code snappy}, {@code lz4}, {@code zstd})
+     */
+    public record Producer(
+            @NotNull Duration linger,
+            @NotNull DataSize batchSize,
+            @NotBlank String compression
+    ) { }
+}
@@ -0,0 +1,21 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Risk rule source.
+ *
+ * @param location       Spring resource with the JSON rule set ({@code classpath:}, {@code file:});
+ *                       blank = built-in rules from {@code app.risk.*}
+ * @param reloadInterval how often the resource is checked for changes
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.risk.rules")
+public record RiskRulesProperties(
+        String location,
+        @NotNull Duration reloadInterval
+) { }
@@ -0,0 +1,29 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+
+/**
+ * Shadow scoring: candidate rule sets scored next to the live rules on real traffic, off the request thread.
+ *
+ * @param enabled       when false nothing is submitted
+ * @param candidates    candidate name -> Spring resource with a JSON rule set (same format as {@code app.risk.rules})
+ * @param threads       shadow worker threads
+ * @param queueCapacity pending shadow tasks; when full, new tasks are dropped (counted, never blocking)
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.risk.shadow")
+public record RiskShadowProperties(
+        boolean enabled,
+        Map<String, String> candidates,
+        @Min(1) int threads,
+        @Min(1) int queueCapacity
+) {
+
+    public RiskShadowProperties {
+        candidates = candidates == null ? Map.of() : candidates;
+    }
+}
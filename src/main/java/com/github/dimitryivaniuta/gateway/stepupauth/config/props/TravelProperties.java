@@ -0,0 +1,20 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Impossible-travel signal: the implied speed between the last trusted country and the request country.
+ *
+ * @param enabled       when false {@code IMPOSSIBLE_TRAVEL} is never raised
+ * @param maxSpeedKmh   fastest plausible travel (km/h); a faster implied speed raises the signal
+ * @param minDistanceKm country pairs closer than this are ignored (centroids are too coarse for neighbours)
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.risk.travel")
+public record TravelProperties(
+        boolean enabled,
+        @Min(1) int maxSpeedKmh,
+        @Min(0) int minDistanceKm
+) { }
@@ -0,0 +1,55 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Trust baseline settings (trusted devices + last country per user).
+ *
+ * <p>{@code touchGranularity}: {@code last_seen_at}/{@code updated_at} are only rewritten when the
+ * stored value is older than this, so repeated approvals do not rewrite the same rows.</p>
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.trust")
+public record TrustProperties(
+        @Valid @NotNull Cache cache,
+        @Valid @NotNull Bloom bloom,
+        @NotNull Duration touchGranularity
+) {
+
+    /**
+     * Per-user trust snapshot cache.
+     *
+     * @param enabled  when false every lookup goes to Postgres
+     * @param maxBytes approximate memory budget for cached snapshots (size-bounded eviction)
+     * @param ttl      snapshot lifetime; bounds staleness of writes made by other nodes
+     */
+    public record Cache(
+            boolean enabled,
+            @NotNull DataSize maxBytes,
+            @NotNull Duration ttl
+    ) { }
+
+    /**
+     * Bloom filter over all trusted (user, device) pairs, answering "definitely new device".
+     *
+     * @param enabled            when false the snapshot (or Postgres) is always consulted
+     * @param expectedInsertions sizing hint: expected number of trusted devices
+     * @param falsePositiveRate  target false positive rate at {@code expectedInsertions}
+     * @param refreshInterval    how often devices trusted on other nodes are pulled in
+     */
+    public record Bloom(
+            boolean enabled,
+            @Min(1) long expectedInsertions,
+            @DecimalMin("0.0001") @DecimalMax("0.5") double falsePositiveRate,
+            @NotNull Duration refreshInterval
+    ) { }
+}
@@ -0,0 +1,48 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.config.props;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-user / per-device velocity signals (transactions and amounts over sliding minute windows).
+ *
+ * @param enabled  when false no velocity signal is ever raised
+ * @param store    {@code MEMORY} (per node) or {@code REDIS} (shared across nodes)
+ * @param maxUsers cap on users tracked in memory (idle users are dropped after an hour, the least
+ *                 recently active ones earlier when the cap is reached)
+ * @param limits   thresholds; a signal is raised when a window reaches its limit (0 = off)
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.risk.velocity")
+public record VelocityProperties(
+        boolean enabled,
+        @NotNull Store store,
+        @Min(1) int maxUsers,
+        @Valid @NotNull Limits limits
+) {
+
+    /** Counter backend. */
+    public enum Store { MEMORY, REDIS }
+
+    /**
+     * @param userCount1m     transactions per user in the last minute  -> {@code HIGH_VELOCITY}
+     * @param userCount10m    transactions per user in the last 10 min  -> {@code HIGH_VELOCITY}
+     * @param userCount60m    transactions per user in the last 60 min  -> {@code HIGH_VELOCITY}
+     * @param userAmount10m   amount per user in the last 10 min        -> {@code HIGH_AMOUNT_VELOCITY}
+     * @param userAmount60m   amount per user in the last 60 min        -> {@code HIGH_AMOUNT_VELOCITY}
+     * @param deviceCount10m  transactions per user+device in 10 min    -> {@code DEVICE_VELOCITY}
+     */
+    public record Limits(
+            @Min(0) int userCount1m,
+            @Min(0) int userCount10m,
+            @Min(0) int userCount60m,
+            @NotNull BigDecimal userAmount10m,
+            @NotNull BigDecimal userAmount60m,
+            @Min(0) int deviceCount10m
+    ) { }
+}
@@ -25,9 +25,10 @@ public class CorsConfig {
                 "X-Request-Id",
                 "X-Correlation-Id",
                 "X-Device-Id",
-                "X-Country"
+                "X-Country",
+                "Idempotency-Key"
         ));
-        cfg.setExposedHeaders(List.of("Location", "Content-Disposition", "Content-Type"));
+        cfg.setExposedHeaders(List.of("Location", "Content-Disposition", "Content-Type", "X-Next-Cursor"));
         cfg.setAllowCredentials(props.allowCredentials());
         cfg.setMaxAge(3600L);
 
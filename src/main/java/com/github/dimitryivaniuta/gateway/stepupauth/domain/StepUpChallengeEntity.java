@@ -2,6 +2,7 @@ package com.github.dimitryivaniuta.gateway.stepupauth.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -9,7 +10,7 @@ import java.util.UUID;
 /** Step-up challenge audit record (OTP secret lives in Redis only). */
 @Getter @Setter @NoArgsConstructor
 @Entity @Table(name="step_up_challenge")
-public class StepUpChallengeEntity {
+public class StepUpChallengeEntity implements Persistable<UUID> {
     @Id private UUID id;
     @Column(name="user_id", nullable=false) private UUID userId;
     @Column(name="decision_id", nullable=false) private UUID decisionId;
@@ -17,4 +18,11 @@ public class StepUpChallengeEntity {
     @Column(nullable=false) private int attempts;
     @Column(name="created_at", nullable=false) private Instant createdAt;
     @Column(name="verified_at") private Instant verifiedAt;
+
+    /** Ids are assigned by the service, so "new" is tracked explicitly (avoids merge's SELECT on save). */
+    @Transient @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) private boolean persisted;
+
+    @Override public boolean isNew() { return !persisted; }
+
+    @PostLoad @PostPersist void markPersisted() { persisted = true; }
 }
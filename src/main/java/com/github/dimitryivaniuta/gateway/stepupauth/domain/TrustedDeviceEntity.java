@@ -13,7 +13,7 @@ import java.util.UUID;
 public class TrustedDeviceEntity {
     @Id @GeneratedValue(strategy=GenerationType.IDENTITY) private Long id;
     @Column(name="user_id", nullable=false) private UUID userId;
-    @Column(name="device_hash", nullable=false, length=128) private String deviceHash;
+    @Column(name="device_hash", nullable=false, length=32) private byte[] deviceHash;
     @Column(name="first_seen_at", nullable=false) private Instant firstSeenAt;
     @Column(name="last_seen_at", nullable=false) private Instant lastSeenAt;
 }
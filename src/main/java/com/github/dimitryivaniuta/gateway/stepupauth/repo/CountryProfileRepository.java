@@ -2,8 +2,33 @@ package com.github.dimitryivaniuta.gateway.stepupauth.repo;
 
 import com.github.dimitryivaniuta.gateway.stepupauth.domain.CountryProfileEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /** Country profile repository. */
-public interface CountryProfileRepository extends JpaRepository<CountryProfileEntity, UUID> { }
+public interface CountryProfileRepository extends JpaRepository<CountryProfileEntity, UUID> {
+
+    /**
+     * Sets the user's last country; an unchanged country only bumps {@code updated_at} if older than {@code staleBefore}.
+     *
+     * @return 1 if a row was inserted or updated, 0 if it was already current
+     */
+    @Modifying
+    @Query(value = """
+            insert into country_profile (user_id, last_country, updated_at)
+            values (:userId, :country, :now)
+            on conflict (user_id) do update
+                set last_country = excluded.last_country,
+                    updated_at = excluded.updated_at
+                where country_profile.last_country is distinct from excluded.last_country
+                   or country_profile.updated_at < :staleBefore
+            """, nativeQuery = true)
+    int upsertLastCountry(@Param("userId") UUID userId,
+                          @Param("country") String country,
+                          @Param("now") Instant now,
+                          @Param("staleBefore") Instant staleBefore);
+}
@@ -1,8 +1,8 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.repo;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,56 +16,124 @@ import java.util.List;
 public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
 
     /**
-     * Admin list: newest first, limited.
+     * Admin list, first page: newest first.
      */
-    List<OutboxEventEntity> findTop500ByOrderByCreatedAtDescIdDesc();
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto(
+                   e.id, e.aggregateId, e.eventType, e.payloadJson, e.status, e.attempts,
+                   e.createdAt, e.nextAttemptAt, e.publishedAt, e.lastError)
+            from OutboxEventEntity e
+            order by e.createdAt desc, e.id desc
+            """)
+    List<OutboxEventDto> findPage(Limit limit);
 
     /**
-     * Admin list: newest first for a specific event type, limited.
+     * Admin list, next page: rows after ({@code createdAt}, {@code id}).
      */
-    List<OutboxEventEntity> findTop500ByEventTypeOrderByCreatedAtDescIdDesc(String eventType);
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto(
+                   e.id, e.aggregateId, e.eventType, e.payloadJson, e.status, e.attempts,
+                   e.createdAt, e.nextAttemptAt, e.publishedAt, e.lastError)
+            from OutboxEventEntity e
+            where (e.createdAt, e.id) < (:createdAt, :id)
+            order by e.createdAt desc, e.id desc
+            """)
+    List<OutboxEventDto> findPageAfter(@Param("createdAt") Instant createdAt, @Param("id") long id, Limit limit);
 
     /**
-     * Admin list: newest first (paged).
+     * Admin list filtered by event type, first page.
      */
     @Query("""
-            select e
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto(
+                   e.id, e.aggregateId, e.eventType, e.payloadJson, e.status, e.attempts,
+                   e.createdAt, e.nextAttemptAt, e.publishedAt, e.lastError)
             from OutboxEventEntity e
+            where e.eventType = :eventType
             order by e.createdAt desc, e.id desc
             """)
-    Page<OutboxEventEntity> findRecent(Pageable pageable);
+    List<OutboxEventDto> findPageByEventType(@Param("eventType") String eventType, Limit limit);
 
     /**
-     * Admin list filtered by event type (paged).
+     * Admin list filtered by event type, next page.
      */
     @Query("""
-            select e
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto(
+                   e.id, e.aggregateId, e.eventType, e.payloadJson, e.status, e.attempts,
+                   e.createdAt, e.nextAttemptAt, e.publishedAt, e.lastError)
             from OutboxEventEntity e
             where e.eventType = :eventType
+              and (e.createdAt, e.id) < (:createdAt, :id)
             order by e.createdAt desc, e.id desc
             """)
-    Page<OutboxEventEntity> findRecentByEventType(@Param("eventType") String eventType, Pageable pageable);
+    List<OutboxEventDto> findPageByEventTypeAfter(@Param("eventType") String eventType,
+                                                  @Param("createdAt") Instant createdAt,
+                                                  @Param("id") long id,
+                                                  Limit limit);
 
     /**
-     * Publisher worker: fetch a batch of due events with SKIP LOCKED (requires active TX).
-     * Fetches a batch of "due" outbox events.
+     * Publisher worker: fetch a batch of due events of one {@code aggregate_id} hash shard (requires active TX).
      *
-     * <p>Uses {@code FOR UPDATE SKIP LOCKED} to support multiple publisher workers without double-publishing.</p>
+     * <p>Events are returned in insertion order ({@code seq}, V12; pooled ids do not follow it), and an
+     * event is held back while an earlier event of the same aggregate is still pending (e.g. waiting for
+     * its retry backoff), so each aggregate is published in order. {@code FOR UPDATE SKIP LOCKED} stays as a guard next to the shard advisory lock.</p>
      */
     @Query(value = """
-            select *
-            from outbox_event
-            where status in (:statuses)
-              and next_attempt_at <= :now
-            order by next_attempt_at asc, id asc
+            select e.*
+            from outbox_event e
+            where e.status in ('NEW', 'FAILED')
+              and e.next_attempt_at <= :now
+              and (hashtext(e.aggregate_id::text) & 2147483647) % :shards = :shard
+              and not exists (
+                  select 1
+                  from outbox_event p
+                  where p.aggregate_id = e.aggregate_id
+                    and p.status in ('NEW', 'FAILED')
+                    and p.seq < e.seq
+                    and p.next_attempt_at > :now)
+            order by e.seq asc
             limit :limit
-            for update skip locked
+            for update of e skip locked
             """, nativeQuery = true)
-    List<OutboxEventEntity> findDueBatch(@Param("now") Instant now,
-                                         @Param("statuses") List<String> statuses,
-                                         @Param("limit") int limit);
+    List<OutboxEventEntity> findDueShardBatch(@Param("now") Instant now,
+                                              @Param("shards") int shards,
+                                              @Param("shard") int shard,
+                                              @Param("limit") int limit);
 
+    /**
+     * Takes the cluster-wide lease for a publisher shard until the current transaction ends.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:namespace, :shard)", nativeQuery = true)
+    boolean tryShardLock(@Param("namespace") int namespace, @Param("shard") int shard);
 
-    java.util.List<OutboxEventEntity> findTop500ByEventTypeOrderByCreatedAtDesc(String eventType);
+    /**
+     * Earliest time (epoch millis) at which {@link #findDueShardBatch} can return an event, or {@code null}
+     * when none are pending.
+     *
+     * <p>Only the first pending event of each aggregate counts: later ones are held back by the ordering
+     * guard until it is published, whatever their own {@code next_attempt_at}.</p>
+     */
+    @Query(value = """
+            select cast(extract(epoch from min(e.next_attempt_at)) * 1000 as bigint)
+            from outbox_event e
+            where e.status in ('NEW', 'FAILED')
+              and not exists (
+                  select 1
+                  from outbox_event p
+                  where p.aggregate_id = e.aggregate_id
+                    and p.status in ('NEW', 'FAILED')
+                    and p.seq < e.seq)
+            """, nativeQuery = true)
+    Long findNextDueEpochMillis();
+
+    /**
+     * Pending (NEW/FAILED) events per shard, for backlog gauges.
+     */
+    @Query(value = """
+            select (hashtext(aggregate_id::text) & 2147483647) % :shards as shard, count(*) as pending
+            from outbox_event
+            where status in ('NEW', 'FAILED')
+            group by 1
+            """, nativeQuery = true)
+    List<Object[]> countPendingByShard(@Param("shards") int shards);
 }
 
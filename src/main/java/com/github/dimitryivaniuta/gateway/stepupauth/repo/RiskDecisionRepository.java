@@ -1,21 +1,81 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.repo;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.domain.RiskDecisionEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Risk decision repository.
+ *
+ * <p>List queries are keyset-paginated on {@code (created_at, id)} descending (V10 indexes) and select
+ * DTOs directly; the {@code ...After} variants continue after the last row of the previous page.</p>
  */
 public interface RiskDecisionRepository extends JpaRepository<RiskDecisionEntity, UUID> {
+
+    /**
+     * Decisions gated by a challenge (several when a batch shares one challenge).
+     */
+    List<RiskDecisionEntity> findByStepUpChallengeId(UUID stepUpChallengeId);
+
+    /**
+     * Admin list, first page.
+     */
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto(
+                   d.id, d.userId, d.actionType, d.amount, d.country, d.riskScore, d.riskLevel,
+                   d.decision, d.createdAt, d.stepUpChallengeId)
+            from RiskDecisionEntity d
+            order by d.createdAt desc, d.id desc
+            """)
+    List<RiskDecisionDto> findPage(Limit limit);
+
+    /**
+     * Admin list, next page.
+     */
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto(
+                   d.id, d.userId, d.actionType, d.amount, d.country, d.riskScore, d.riskLevel,
+                   d.decision, d.createdAt, d.stepUpChallengeId)
+            from RiskDecisionEntity d
+            where (d.createdAt, d.id) < (:createdAt, :id)
+            order by d.createdAt desc, d.id desc
+            """)
+    List<RiskDecisionDto> findPageAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
     /**
-     * Latest decisions for a user, newest first.
+     * A user's decisions, first page.
      */
-    java.util.List<RiskDecisionEntity> findTop200ByUserIdOrderByCreatedAtDesc(java.util.UUID userId);
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto(
+                   d.id, d.userId, d.actionType, d.amount, d.country, d.riskScore, d.riskLevel,
+                   d.decision, d.createdAt, d.stepUpChallengeId)
+            from RiskDecisionEntity d
+            where d.userId = :userId
+            order by d.createdAt desc, d.id desc
+            """)
+    List<RiskDecisionDto> findUserPage(@Param("userId") UUID userId, Limit limit);
 
     /**
-     * Latest decisions for admin view.
+     * A user's decisions, next page.
      */
-    java.util.List<RiskDecisionEntity> findTop500ByOrderByCreatedAtDesc();
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto(
+                   d.id, d.userId, d.actionType, d.amount, d.country, d.riskScore, d.riskLevel,
+                   d.decision, d.createdAt, d.stepUpChallengeId)
+            from RiskDecisionEntity d
+            where d.userId = :userId
+              and (d.createdAt, d.id) < (:createdAt, :id)
+            order by d.createdAt desc, d.id desc
+            """)
+    List<RiskDecisionDto> findUserPageAfter(@Param("userId") UUID userId,
+                                            @Param("createdAt") Instant createdAt,
+                                            @Param("id") UUID id,
+                                            Limit limit);
 }
@@ -1,8 +1,14 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.repo;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpChallengeDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.domain.StepUpChallengeEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,12 +19,25 @@ public interface StepUpChallengeRepository extends JpaRepository<StepUpChallenge
     Optional<StepUpChallengeEntity> findByIdAndUserId(UUID id, UUID userId);
 
     /**
-     * Latest challenges for admin view.
+     * Admin list, first page (keyset on {@code (created_at, id)} descending).
      */
-    java.util.List<StepUpChallengeEntity> findTop500ByOrderByCreatedAtDesc();
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpChallengeDto(
+                   c.id, c.userId, c.decisionId, c.status, c.attempts, c.createdAt, c.verifiedAt)
+            from StepUpChallengeEntity c
+            order by c.createdAt desc, c.id desc
+            """)
+    List<StepUpChallengeDto> findPage(Limit limit);
 
     /**
-     * Latest challenges for a user.
+     * Admin list, next page: rows after ({@code createdAt}, {@code id}).
      */
-    java.util.List<StepUpChallengeEntity> findTop200ByUserIdOrderByCreatedAtDesc(UUID userId);
+    @Query("""
+            select new com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpChallengeDto(
+                   c.id, c.userId, c.decisionId, c.status, c.attempts, c.createdAt, c.verifiedAt)
+            from StepUpChallengeEntity c
+            where (c.createdAt, c.id) < (:createdAt, :id)
+            order by c.createdAt desc, c.id desc
+            """)
+    List<StepUpChallengeDto> findPageAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
 }
@@ -1,12 +1,107 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.repo;
 
 import com.github.dimitryivaniuta.gateway.stepupauth.domain.TrustedDeviceEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /** Trusted device repository. */
 public interface TrustedDeviceRepository extends JpaRepository<TrustedDeviceEntity, Long> {
-    Optional<TrustedDeviceEntity> findByUserIdAndDeviceHash(UUID userId, String deviceHash);
+    Optional<TrustedDeviceEntity> findByUserIdAndDeviceHash(UUID userId, byte[] deviceHash);
+
+    /**
+     * Inserts the device, or bumps {@code last_seen_at} only if the stored value is older than {@code staleBefore}.
+     *
+     * <p>Race-free under concurrent approvals of the same new device.</p>
+     *
+     * @return 1 if a row was inserted or touched, 0 if it was already fresh
+     */
+    @Modifying
+    @Query(value = """
+            insert into trusted_device (user_id, device_hash, first_seen_at, last_seen_at)
+            values (:userId, :deviceHash, :now, :now)
+            on conflict (user_id, device_hash) do update
+                set last_seen_at = excluded.last_seen_at
+                where trusted_device.last_seen_at < :staleBefore
+            """, nativeQuery = true)
+    int upsertTrusted(@Param("userId") UUID userId,
+                      @Param("deviceHash") byte[] deviceHash,
+                      @Param("now") Instant now,
+                      @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Authorize-time trust signals in one statement: is the device known, and the user's last country.
+     */
+    @Query(value = """
+            select exists(select 1
+                          from trusted_device d
+                          where d.user_id = :userId
+                            and d.device_hash = :deviceHash) as "deviceKnown",
+                   cp.last_country as "lastCountry",
+                   cp.updated_at as "countryUpdatedAt"
+            from (select 1) as one
+            left join country_profile cp on cp.user_id = :userId
+            """, nativeQuery = true)
+    TrustSignalsRow findTrustSignals(@Param("userId") UUID userId, @Param("deviceHash") byte[] deviceHash);
+
+    /**
+     * Full trust baseline of a user in one statement: one row per trusted device (at least one row,
+     * with a null hash when the user has no devices), each carrying the country profile columns.
+     */
+    @Query(value = """
+            select d.device_hash as "deviceHash",
+                   cp.last_country as "lastCountry",
+                   cp.updated_at as "countryUpdatedAt"
+            from (select cast(:userId as uuid) as user_id) u
+            left join country_profile cp on cp.user_id = u.user_id
+            left join trusted_device d on d.user_id = u.user_id
+            """, nativeQuery = true)
+    List<TrustBaselineRow> findTrustBaseline(@Param("userId") UUID userId);
+
+    /**
+     * Streams (userId, deviceHash) pairs first seen at or after {@code since} (Bloom filter warm-up/refresh).
+     *
+     * <p>Must be consumed inside a transaction and closed by the caller.</p>
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+            select d.userId as userId, d.deviceHash as deviceHash
+            from TrustedDeviceEntity d
+            where d.firstSeenAt >= :since
+            """)
+    Stream<DeviceKey> streamFirstSeenSince(@Param("since") Instant since);
+
+    /** Result of {@link #findTrustSignals}. */
+    interface TrustSignalsRow {
+        boolean getDeviceKnown();
+
+        String getLastCountry();
+
+        Instant getCountryUpdatedAt();
+    }
+
+    /** Row of {@link #findTrustBaseline}. */
+    interface TrustBaselineRow {
+        byte[] getDeviceHash();
+
+        String getLastCountry();
+
+        Instant getCountryUpdatedAt();
+    }
+
+    /** (userId, deviceHash) projection. */
+    interface DeviceKey {
+        UUID getUserId();
+
+        byte[] getDeviceHash();
+    }
 }
@@ -0,0 +1,190 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.JwtException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lean HS256 verification for tokens issued by this service.
+ *
+ * <p>Avoids JJWT's generic header/claims maps: the signature is checked with a per-thread
+ * {@link Mac}, and only the claims we use ({@code iss, sub, exp, nbf, username, roles}) are read
+ * with a streaming JSON parser.</p>
+ *
+ * <p>{@link #verify} returns {@code null} when it cannot decide (foreign header, unexpected claim
+ * shapes); the caller then falls back to JJWT. A bad signature, wrong issuer or expired token is a
+ * definite rejection and throws {@link JwtException}.</p>
+ */
+final class Hs256Verifier {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Base64.Decoder B64URL = Base64.getUrlDecoder();
+    private static final Base64.Encoder B64URL_NOPAD = Base64.getUrlEncoder().withoutPadding();
+
+    private final String issuer;
+    private final String expectedHeader;
+    private final ThreadLocal<Mac> mac;
+
+    Hs256Verifier(byte[] keyBytes, String issuer, String expectedHeader) {
+        this.issuer = issuer;
+        this.expectedHeader = expectedHeader;
+        SecretKeySpec spec = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> newMac(spec));
+    }
+
+    /**
+     * @return verified token, or {@code null} if this token must be handled by JJWT
+     * @throws JwtException if the token is definitely invalid
+     */
+    VerifiedJwt verify(String token) {
+        int dot1 = token.indexOf('.');
+        if (dot1 != expectedHeader.length() || !token.startsWith(expectedHeader)) {
+            return null;
+        }
+        int dot2 = token.indexOf('.', dot1 + 1);
+        if (dot2 < 0 || token.indexOf('.', dot2 + 1) >= 0) {
+            return null;
+        }
+
+        byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+        Mac m = mac.get();
+        m.update(ascii, 0, dot2);
+        byte[] expectedSig = B64URL_NOPAD.encode(m.doFinal());
+        if (!constantTimeEquals(expectedSig, ascii, dot2 + 1, ascii.length - dot2 - 1)) {
+            throw new JwtException("JWT signature does not match");
+        }
+
+        ByteBuffer payload;
+        try {
+            payload = B64URL.decode(ByteBuffer.wrap(ascii, dot1 + 1, dot2 - dot1 - 1));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        return readClaims(payload);
+    }
+
+    private VerifiedJwt readClaims(ByteBuffer payload) {
+        String iss = null;
+        String sub = null;
+        String username = null;
+        long exp = -1;
+        long nbf = -1;
+        List<?> roles = null;
+
+        try (JsonParser p = JSON.createParser(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining())) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "iss" -> { if (value != JsonToken.VALUE_STRING) return null; iss = p.getText(); }
+                    case "sub" -> { if (value != JsonToken.VALUE_STRING) return null; sub = p.getText(); }
+                    case "username" -> { if (value != JsonToken.VALUE_STRING) return null; username = p.getText(); }
+                    case "exp" -> { if (value != JsonToken.VALUE_NUMBER_INT) return null; exp = p.getLongValue(); }
+                    case "nbf" -> { if (value != JsonToken.VALUE_NUMBER_INT) return null; nbf = p.getLongValue(); }
+                    case "roles" -> {
+                        roles = readRoles(p, value);
+                        if (roles == null) return null;
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+        } catch (IOException ex) {
+            return null;
+        }
+
+        if (sub == null || exp < 0) {
+            return null;
+        }
+        if (!issuer.equals(iss)) {
+            throw new JwtException("JWT issuer mismatch");
+        }
+        long nowSeconds = Instant.now().getEpochSecond();
+        if (nowSeconds >= exp) {
+            throw new JwtException("JWT expired");
+        }
+        if (nbf >= 0 && nowSeconds < nbf) {
+            throw new JwtException("JWT not yet valid");
+        }
+
+        UUID userId;
+        try {
+            userId = UUID.fromString(sub);
+        } catch (IllegalArgumentException ex) {
+            throw new JwtException("JWT subject is not a user id");
+        }
+        JwtPrincipal principal = new JwtPrincipal(userId, username, JwtService.normalizeRoles(roles));
+        return new VerifiedJwt(principal, Instant.ofEpochSecond(exp));
+    }
+
+    /**
+     * Reads {@code roles}; the single-element {@code ["USER"]} case allocates nothing.
+     */
+    private static List<?> readRoles(JsonParser p, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return List.of(p.getText().split(","));
+        }
+        if (value != JsonToken.START_ARRAY) {
+            return null;
+        }
+        List<String> roles = null;
+        String first = null;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t != JsonToken.VALUE_STRING) {
+                return null;
+            }
+            String role = p.getText();
+            if (first == null && roles == null) {
+                first = role;
+            } else {
+                if (roles == null) {
+                    roles = new ArrayList<>(4);
+                    roles.add(first);
+                }
+                roles.add(role);
+            }
+        }
+        if (roles != null) {
+            return roles;
+        }
+        if (first == null) {
+            return List.of();
+        }
+        return "USER".equals(first) ? JwtService.USER_ROLES : List.of(first);
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, byte[] actual, int offset, int length) {
+        int diff = expected.length ^ length;
+        for (int i = 0; i < expected.length; i++) {
+            byte b = i < length ? actual[offset + i] : 0;
+            diff |= expected[i] ^ b;
+        }
+        return diff == 0;
+    }
+
+    private static Mac newMac(SecretKeySpec spec) {
+        try {
+            Mac m = Mac.getInstance("HmacSHA256");
+            m.init(spec);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.List;
  * <p>Responsibilities:</p>
  * <ul>
  *   <li>Parse {@code Authorization: Bearer ...}</li>
+ *   <li>Resolve the token through {@link VerifiedTokenCache} (verified once per token, not per request)</li>
  *   <li>Create Authentication with authorities derived from JWT {@code roles}</li>
  * </ul>
  *
@@ -30,10 +31,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private static final String BEARER_PREFIX = "Bearer ";
 
-    private final JwtService jwtService;
+    private static final List<SimpleGrantedAuthority> USER_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<SimpleGrantedAuthority> USER_ADMIN_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
 
-    public JwtAuthFilter(JwtService jwtService) {
-        this.jwtService = jwtService;
+    private final VerifiedTokenCache tokens;
+
+    public JwtAuthFilter(VerifiedTokenCache tokens) {
+        this.tokens = tokens;
     }
 
     @Override
@@ -47,13 +53,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             if (auth != null && auth.startsWith(BEARER_PREFIX)) {
                 String token = auth.substring(BEARER_PREFIX.length()).trim();
                 if (!token.isEmpty()) {
-                    try {
-                        JwtPrincipal principal = jwtService.parse(token);
-                        List<SimpleGrantedAuthority> authorities = toAuthorities(principal);
-
-                        var authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+                    VerifiedTokenCache.CachedToken verified = tokens.resolve(token);
+                    if (verified != null) {
+                        var authentication = new UsernamePasswordAuthenticationToken(
+                                verified.principal(), null, verified.authorities());
                         SecurityContextHolder.getContext().setAuthentication(authentication);
-                    } catch (Exception ex) {
+                    } else {
                         // Invalid token -> treat as anonymous.
                         SecurityContextHolder.clearContext();
                     }
@@ -64,10 +69,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
-    private static List<SimpleGrantedAuthority> toAuthorities(JwtPrincipal p) {
+    static List<SimpleGrantedAuthority> toAuthorities(JwtPrincipal p) {
         List<String> roles = (p == null) ? null : p.roles();
-        if (roles == null || roles.isEmpty()) {
-            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        if (roles == null || roles.isEmpty() || roles == JwtService.USER_ROLES) {
+            return USER_AUTHORITIES;
+        }
+        if (roles == JwtService.USER_ADMIN_ROLES) {
+            return USER_ADMIN_AUTHORITIES;
         }
 
         return roles.stream()
@@ -1,6 +1,7 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -12,7 +13,7 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -27,10 +28,22 @@ import java.util.UUID;
  *   <li>JWT contains {@code username}</li>
  *   <li>JWT contains {@code roles} (list of strings), always at least {@code USER}</li>
  * </ul>
+ *
+ * <p>Verification: the JJWT parser is built once in {@link #init()}. When
+ * {@code app.security.jwt.fast-verify} is on, tokens carrying exactly the header this service
+ * issues are verified by {@link Hs256Verifier} (HMAC + streaming claim read, no claims map);
+ * anything else falls back to JJWT.</p>
  */
 @Service
 public class JwtService {
 
+    /** Interned role list for the by far most common claim value. */
+    static final List<String> USER_ROLES = List.of("USER");
+    /** Interned role list for admin users. */
+    static final List<String> USER_ADMIN_ROLES = List.of("USER", "ADMIN");
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
     @Value("${app.security.jwt.issuer}")
     private String issuer;
 
@@ -40,11 +53,28 @@ public class JwtService {
     @Value("${app.security.jwt.ttl}")
     private Duration ttl;
 
+    @Value("${app.security.jwt.fast-verify:true}")
+    private boolean fastVerify;
+
     private SecretKey key;
+    private JwtParser parser;
+    private Hs256Verifier fastVerifier;
 
     @PostConstruct
     void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .requireIssuer(issuer)
+                .verifyWith(key)
+                .build();
+
+        if (fastVerify) {
+            // Learn the exact header segment we emit; only tokens carrying it take the fast path.
+            String probe = issueToken(new UUID(0L, 0L), "probe", USER_ROLES);
+            this.fastVerifier = new Hs256Verifier(key.getEncoded(), issuer, probe.substring(0, probe.indexOf('.')));
+        } else {
+            this.fastVerifier = null;
+        }
     }
 
     /**
@@ -74,50 +104,75 @@ public class JwtService {
      * Parses JWT and returns principal.
      */
     public JwtPrincipal parse(String token) {
-        Claims claims = Jwts.parser()
-                .requireIssuer(issuer)
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verify(token).principal();
+    }
+
+    /**
+     * Parses and verifies JWT, returning principal together with the token expiry.
+     */
+    public VerifiedJwt verify(String token) {
+        Hs256Verifier fast = fastVerifier;
+        if (fast != null) {
+            VerifiedJwt verified = fast.verify(token);
+            if (verified != null) {
+                return verified;
+            }
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
 
         String username = (String) claims.get("username");
         UUID userId = UUID.fromString(claims.getSubject());
 
-        List<String> roles = extractRoles(claims);
-        roles = normalizeRoles(roles);
+        List<String> roles = normalizeRoles(extractRoles(claims));
 
-        return new JwtPrincipal(userId, username, roles);
+        Date exp = claims.getExpiration();
+        return new VerifiedJwt(new JwtPrincipal(userId, username, roles), exp == null ? null : exp.toInstant());
     }
 
-    private static List<String> normalizeRoles(List<String> roles) {
+    /**
+     * Trims, strips {@code ROLE_}, de-duplicates; returns an interned list for the common role sets.
+     */
+    static List<String> normalizeRoles(List<?> roles) {
         if (roles == null) {
-            return List.of("USER");
+            return USER_ROLES;
+        }
+        if (roles.size() == 1 && "USER".equals(roles.get(0))) {
+            return USER_ROLES;
+        }
+
+        List<String> cleaned = new ArrayList<>(roles.size());
+        for (Object raw : roles) {
+            String r = String.valueOf(raw).trim();
+            if (r.startsWith(ROLE_PREFIX)) {
+                r = r.substring(ROLE_PREFIX.length()); // store without ROLE_ in token
+            }
+            if (!r.isBlank() && !cleaned.contains(r)) {
+                cleaned.add(r);
+            }
+        }
+        return intern(cleaned);
+    }
+
+    private static List<String> intern(List<String> roles) {
+        if (roles.isEmpty() || roles.equals(USER_ROLES)) {
+            return USER_ROLES;
+        }
+        if (roles.equals(USER_ADMIN_ROLES)) {
+            return USER_ADMIN_ROLES;
         }
-        List<String> cleaned = roles.stream()
-                .map(String::valueOf)
-                .map(String::trim)
-                .filter(r -> !r.isBlank())
-                .map(r -> r.startsWith("ROLE_") ? r.substring("ROLE_".length()) : r) // store without ROLE_ in token
-                .distinct()
-                .toList();
-
-        return cleaned.isEmpty() ? List.of("USER") : cleaned;
+        return List.copyOf(roles);
     }
 
-    @SuppressWarnings("unchecked")
-    private static List<String> extractRoles(Claims claims) {
+    private static List<?> extractRoles(Claims claims) {
         Object rawRoles = claims.get("roles");
 
         if (rawRoles instanceof List<?> l) {
-            return l.stream().map(String::valueOf).toList();
+            return l;
         }
         if (rawRoles instanceof String s) {
-            return Arrays.stream(s.split(","))
-                    .map(String::trim)
-                    .filter(x -> !x.isBlank())
-                    .toList();
+            return List.of(s.split(","));
         }
-        return List.of("USER");
+        return USER_ROLES;
     }
 }
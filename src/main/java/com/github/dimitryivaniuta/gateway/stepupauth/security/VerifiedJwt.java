@@ -0,0 +1,11 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.security;
+
+import java.time.Instant;
+
+/**
+ * Result of a successful JWT verification.
+ *
+ * @param principal principal extracted from the claims
+ * @param expiresAt token {@code exp}, or {@code null} if the token has no expiry
+ */
+public record VerifiedJwt(JwtPrincipal principal, Instant expiresAt) { }
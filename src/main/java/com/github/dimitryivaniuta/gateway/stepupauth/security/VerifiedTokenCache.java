@@ -0,0 +1,124 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.JwtCacheProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bounded cache of already verified JWTs.
+ *
+ * <p>Clients reuse one token for many calls, so HMAC verification, claim parsing and authority
+ * mapping are done once per token instead of once per request.</p>
+ * <ul>
+ *   <li>Keyed by SHA-256 of the raw token (the token itself is never kept as a key)</li>
+ *   <li>Each entry expires exactly at the token {@code exp}</li>
+ *   <li>Invalid tokens are negatively cached for {@code negative-ttl}, so garbage cannot burn CPU</li>
+ * </ul>
+ *
+ * <p>Metrics: {@code jwt.cache.requests{result=hit|miss|rejected}}, {@code jwt.cache.size}.</p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * Verified token ready to be turned into an Authentication.
+     */
+    public record CachedToken(JwtPrincipal principal, List<SimpleGrantedAuthority> authorities, Instant expiresAt) { }
+
+    private final JwtService jwtService;
+    private final JwtCacheProperties props;
+    private final Cache<String, CachedToken> verified;
+    private final Cache<String, Boolean> rejected;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejectedHits;
+
+    public VerifiedTokenCache(JwtService jwtService, JwtCacheProperties props, MeterRegistry registry) {
+        this.jwtService = jwtService;
+        this.props = props;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(props.maxSize())
+                .expireAfter(new ExpireAtTokenExp())
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(props.negativeMaxSize())
+                .expireAfterWrite(props.negativeTtl())
+                .build();
+
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(registry);
+        this.rejectedHits = Counter.builder("jwt.cache.requests").tag("result", "rejected").register(registry);
+        Gauge.builder("jwt.cache.size", verified, Cache::estimatedSize).register(registry);
+    }
+
+    /**
+     * Resolves a raw bearer token.
+     *
+     * @return verified token, or {@code null} if the token is invalid or expired
+     */
+    public CachedToken resolve(String token) {
+        if (!props.enabled()) {
+            return verifyOrNull(token);
+        }
+
+        String key = SignalHasher.sha256(token);
+        CachedToken hit = verified.getIfPresent(key);
+        if (hit != null) {
+            hits.increment();
+            return hit;
+        }
+        if (rejected.getIfPresent(key) != null) {
+            rejectedHits.increment();
+            return null;
+        }
+
+        misses.increment();
+        CachedToken fresh = verifyOrNull(token);
+        if (fresh == null) {
+            rejected.put(key, Boolean.TRUE);
+        } else if (fresh.expiresAt() != null) {
+            verified.put(key, fresh);
+        }
+        return fresh;
+    }
+
+    private CachedToken verifyOrNull(String token) {
+        try {
+            VerifiedJwt jwt = jwtService.verify(token);
+            return new CachedToken(jwt.principal(), JwtAuthFilter.toAuthorities(jwt.principal()), jwt.expiresAt());
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Per-entry expiry: time left until the token {@code exp}.
+     */
+    private static final class ExpireAtTokenExp implements Expiry<String, CachedToken> {
+        @Override
+        public long expireAfterCreate(String key, CachedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,23 +1,29 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.service.admin;
 
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.CursorPage;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.MonitoringEventDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.OutboxEventDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.RiskDecisionDto;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.StepUpChallengeDto;
-import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.OutboxEventRepository;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.RiskDecisionRepository;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.StepUpChallengeRepository;
-import org.springframework.data.domain.PageRequest;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring.MonitoringEventQuery;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.paging.KeysetCursor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Read-only admin queries.
  *
- * <p>This service is the correct place to call query helpers like
- * {@code OutboxEventRepository.findRecent(...)} and {@code findRecentByEventType(...)}.</p>
+ * <p>Lists are keyset-paginated: each page is one index range scan after the cursor, so its cost does
+ * not depend on how deep the client has paged or on table size.</p>
  */
 @Service
 public class AdminQueryService {
@@ -25,103 +31,73 @@ public class AdminQueryService {
     private final RiskDecisionRepository decisions;
     private final StepUpChallengeRepository challenges;
     private final OutboxEventRepository outbox;
+    private final MonitoringEventQuery monitoringEvents;
 
     public AdminQueryService(
             RiskDecisionRepository decisions,
             StepUpChallengeRepository challenges,
-            OutboxEventRepository outbox
+            OutboxEventRepository outbox,
+            MonitoringEventQuery monitoringEvents
     ) {
         this.decisions = decisions;
         this.challenges = challenges;
         this.outbox = outbox;
+        this.monitoringEvents = monitoringEvents;
     }
 
-    public List<RiskDecisionDto> listRiskDecisions(int limit) {
+    public CursorPage<RiskDecisionDto> listRiskDecisions(int limit, String cursor) {
         int safe = clamp(limit, 1, 500);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit fetch = Limit.of(safe + 1);
 
-        return decisions.findTop500ByOrderByCreatedAtDesc()
-                .stream()
-                .limit(safe)
-                .map(e -> new RiskDecisionDto(
-                        e.getId(),
-                        e.getUserId(),
-                        e.getActionType(),
-                        e.getAmount(),
-                        e.getCountry(),
-                        e.getRiskScore(),
-                        e.getRiskLevel(),
-                        e.getDecision(),
-                        e.getCreatedAt(),
-                        e.getStepUpChallengeId()
-                ))
-                .toList();
+        var rows = after == null
+                ? decisions.findPage(fetch)
+                : decisions.findPageAfter(after.createdAt(), after.uuid(), fetch);
+        return CursorPage.of(rows, safe, d -> KeysetCursor.encode(d.createdAt(), d.id()));
     }
 
-    public List<StepUpChallengeDto> listStepUpChallenges(int limit) {
+    public CursorPage<StepUpChallengeDto> listStepUpChallenges(int limit, String cursor) {
         int safe = clamp(limit, 1, 500);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit fetch = Limit.of(safe + 1);
 
-        return challenges.findTop500ByOrderByCreatedAtDesc()
-                .stream()
-                .limit(safe)
-                .map(e -> new StepUpChallengeDto(
-                        e.getId(),
-                        e.getUserId(),
-                        e.getDecisionId(),
-                        e.getStatus(),
-                        e.getAttempts(),
-                        e.getCreatedAt(),
-                        e.getVerifiedAt()
-                ))
-                .toList();
+        var rows = after == null
+                ? challenges.findPage(fetch)
+                : challenges.findPageAfter(after.createdAt(), after.uuid(), fetch);
+        return CursorPage.of(rows, safe, c -> KeysetCursor.encode(c.createdAt(), c.id()));
     }
 
-    public List<OutboxEventDto> listOutbox(String eventType, int limit) {
+    public CursorPage<OutboxEventDto> listOutbox(String eventType, int limit, String cursor) {
         int safe = clamp(limit, 1, 500);
-        var page = PageRequest.of(0, safe);
-
-        var rows = (eventType == null || eventType.isBlank())
-                ? outbox.findRecent(page).getContent()
-                : outbox.findRecentByEventType(eventType.trim(), page).getContent();
-
-        return rows.stream().map(AdminQueryService::toDto).toList();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit fetch = Limit.of(safe + 1);
+        String type = (eventType == null || eventType.isBlank()) ? null : eventType.trim();
+
+        List<OutboxEventDto> rows;
+        if (type == null) {
+            rows = after == null
+                    ? outbox.findPage(fetch)
+                    : outbox.findPageAfter(after.createdAt(), after.longId(), fetch);
+        } else {
+            rows = after == null
+                    ? outbox.findPageByEventType(type, fetch)
+                    : outbox.findPageByEventTypeAfter(type, after.createdAt(), after.longId(), fetch);
+        }
+        return CursorPage.of(rows, safe, e -> KeysetCursor.encode(e.createdAt(), e.id()));
     }
 
-    public List<MonitoringEventDto> listMonitoringEvents(int limit) {
+    public CursorPage<MonitoringEventDto> listMonitoringEvents(int limit, String cursor, UUID userId,
+                                                               Instant from, Instant to) {
         int safe = clamp(limit, 1, 500);
-
-        // Read recent outbox entries and filter by "monitoring-like" event types.
-        // (You can replace this with a dedicated repo query if needed.)
-        var rows = outbox.findRecent(PageRequest.of(0, 500)).getContent();
-
-        return rows.stream()
-                .filter(e -> isMonitoringType(e.getEventType()))
-                .limit(safe)
-                .map(e -> new MonitoringEventDto(
-                        e.getId(),
-                        e.getEventType(),
-                        e.getCreatedAt(),
-                        e.getPayloadJson()
-                ))
-                .toList();
-    }
-
-    private static boolean isMonitoringType(String eventType) {
-        return eventType != null && (eventType.startsWith("RISK_") || eventType.startsWith("STEP_"));
-    }
-
-    private static OutboxEventDto toDto(OutboxEventEntity e) {
-        return new OutboxEventDto(
-                e.getId(),
-                e.getAggregateId(),
-                e.getEventType(),
-                e.getPayloadJson(),
-                e.getStatus(),
-                e.getAttempts(),
-                e.getCreatedAt(),
-                e.getNextAttemptAt(),
-                e.getPublishedAt(),
-                e.getLastError()
-        );
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        var rows = after == null
+                ? monitoringEvents.find(userId, from, to, null, 0L, safe + 1)
+                : monitoringEvents.find(userId, from, to, after.createdAt(), after.longId(), safe + 1);
+        return CursorPage.of(rows, safe, e -> KeysetCursor.encode(e.createdAt(), e.id()));
     }
 
     private static int clamp(int v, int min, int max) {
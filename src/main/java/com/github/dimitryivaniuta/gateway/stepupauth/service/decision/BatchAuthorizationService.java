@@ -0,0 +1,167 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.decision;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeBatchRequest;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeBatchResponse;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeTransactionRequest;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeTransactionResponse;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OtpProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.RiskDecisionEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.StepUpChallengeEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.geo.TravelService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring.MonitoringEventFactory;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring.MonitoringEvents;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.otp.OtpService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.outbox.OutboxNotifier;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskAssessment;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskEngine;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskShadowScorer;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.trust.TrustService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.trust.TrustSignals;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.velocity.VelocityService;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Authorizes a batch of actions for one user/device/country in a single transaction.
+ *
+ * <ul>
+ *   <li>Trust signals are resolved once for the whole batch (items do not see each other's trust writes)</li>
+ *   <li>Decisions and outbox rows are written with batched JDBC</li>
+ *   <li>All step-up items share one challenge/OTP; verifying it approves every linked decision</li>
+ * </ul>
+ */
+@Service
+public class BatchAuthorizationService {
+
+    private final RiskEngine riskEngine;
+    private final TrustService trust;
+    private final DecisionBatchWriter writer;
+    private final OtpService otp;
+    private final OtpProperties otpProps;
+    private final MonitoringEventFactory events;
+    private final OutboxNotifier outboxNotifier;
+    private final VelocityService velocity;
+    private final TravelService travel;
+    private final RiskShadowScorer shadow;
+
+    public BatchAuthorizationService(
+            RiskEngine riskEngine,
+            TrustService trust,
+            DecisionBatchWriter writer,
+            OtpService otp,
+            OtpProperties otpProps,
+            MonitoringEventFactory events,
+            OutboxNotifier outboxNotifier,
+            VelocityService velocity,
+            TravelService travel,
+            RiskShadowScorer shadow
+    ) {
+        this.riskEngine = riskEngine;
+        this.trust = trust;
+        this.writer = writer;
+        this.otp = otp;
+        this.otpProps = otpProps;
+        this.events = events;
+        this.outboxNotifier = outboxNotifier;
+        this.velocity = velocity;
+        this.travel = travel;
+        this.shadow = shadow;
+    }
+
+    @Transactional
+    public AuthorizeBatchResponse authorize(UUID userId, String deviceId, String country, AuthorizeBatchRequest req) {
+        DeviceContext device = DeviceContext.resolve(deviceId, country);
+        TrustSignals signals = trust.signals(userId, device.deviceHash(), device.country());
+
+        Instant now = Instant.now();
+        long baseSignals = signals.riskSignals()
+                | travel.signals(signals.lastCountry(), signals.lastCountryAt(), device.country(), now.toEpochMilli());
+        int n = req.items().size();
+        List<RiskDecisionEntity> decisions = new ArrayList<>(n);
+        List<RiskAssessment> assessments = new ArrayList<>(n);
+        UUID challengeId = null;
+        UUID challengeDecisionId = null;
+        boolean anyApproved = false;
+
+        for (AuthorizeTransactionRequest item : req.items()) {
+            // Each item counts as one transaction, so a large basket builds up velocity on its own.
+            long riskSignals = baseSignals | velocity.record(userId, device.deviceHash(), item.amount());
+            RiskAssessment a = riskEngine.assess(item.actionType(), device.country(), riskSignals, item.amount());
+            shadow.submit(item.actionType(), device.country(), riskSignals, item.amount(), a);
+
+            RiskDecisionEntity d = new RiskDecisionEntity();
+            d.setId(UUID.randomUUID());
+            d.setUserId(userId);
+            d.setActionType(item.actionType());
+            d.setAmount(item.amount());
+            d.setDeviceHash(device.deviceHash());
+            d.setCountry(device.country());
+            d.setRiskScore(a.score());
+            d.setRiskLevel(a.level().name());
+            d.setCreatedAt(now);
+
+            if (a.stepUpRequired()) {
+                if (challengeId == null) {
+                    challengeId = UUID.randomUUID();
+                    challengeDecisionId = d.getId();
+                }
+                d.setDecision("STEP_UP_REQUIRED");
+                d.setStepUpRequired(true);
+                d.setStepUpChallengeId(challengeId);
+            } else {
+                d.setDecision("APPROVED");
+                d.setStepUpRequired(false);
+                anyApproved = true;
+            }
+            decisions.add(d);
+            assessments.add(a);
+        }
+
+        writer.insertDecisions(decisions);
+
+        String code = null;
+        if (challengeId != null) {
+            StepUpChallengeEntity ch = new StepUpChallengeEntity();
+            ch.setId(challengeId);
+            ch.setUserId(userId);
+            ch.setDecisionId(challengeDecisionId);
+            ch.setStatus("PENDING");
+            ch.setAttempts(0);
+            ch.setCreatedAt(now);
+            writer.insertChallenge(ch);
+            code = otp.generateAndStore(challengeId);
+        }
+
+        if (anyApproved) {
+            trust.trust(userId, device.deviceHash(), device.country());
+        }
+
+        List<OutboxEventEntity> outboxRows = new ArrayList<>(n + (challengeId == null ? 0 : n));
+        List<AuthorizeTransactionResponse> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RiskDecisionEntity d = decisions.get(i);
+            RiskAssessment a = assessments.get(i);
+
+            outboxRows.add(DecisionBatchWriter.outboxRow(d.getId(), MonitoringEvents.RISK_DECISION_MADE,
+                    events.riskDecisionMade(userId, d.getId(), a, d.getDecision()), now));
+            if (d.isStepUpRequired()) {
+                outboxRows.add(DecisionBatchWriter.outboxRow(d.getId(), MonitoringEvents.STEP_UP_REQUIRED,
+                        events.stepUpRequired(userId, d.getId(), challengeId, a), now));
+                results.add(new AuthorizeTransactionResponse("STEP_UP_REQUIRED", d.getId(), a.score(), a.level().name(),
+                        challengeId, otpProps.devPreview() ? code : null));
+            } else {
+                results.add(new AuthorizeTransactionResponse("APPROVED", d.getId(), a.score(), a.level().name(), null, null));
+            }
+        }
+        writer.insertOutbox(outboxRows);
+        outboxNotifier.notifyOnCommit();
+
+        return new AuthorizeBatchResponse(results);
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.decision;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.RiskDecisionEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.StepUpChallengeEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Batched JDBC inserts for the batch authorize path.
+ *
+ * <p>Runs on the caller's transaction (JPA and JDBC share the connection). The
+ * {@code step_up_challenge.decision_id} foreign key is deferred to commit (V9), so decisions and
+ * challenges may be written in either order within the transaction.</p>
+ *
+ * <p>Also used by the decision journal flusher, which needs {@link #insertNewDecisions} to be idempotent
+ * (a crash between commit and checkpoint replays records that are already in the table).</p>
+ */
+@Component
+public class DecisionBatchWriter {
+
+    private static final String INSERT_DECISION = """
+            insert into risk_decision (id, user_id, action_type, amount, device_hash, country, risk_score,
+                                       risk_level, decision, step_up_required, step_up_challenge_id, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_CHALLENGE = """
+            insert into step_up_challenge (id, user_id, decision_id, status, attempts, created_at)
+            values (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_OUTBOX = """
+            insert into outbox_event (aggregate_id, event_type, payload_json, status, attempts, next_attempt_at, created_at)
+            values (?, ?, cast(? as jsonb), ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_DECISION_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_NEW_DECISIONS_PREFIX = """
+            insert into risk_decision (id, user_id, action_type, amount, device_hash, country, risk_score,
+                                       risk_level, decision, step_up_required, step_up_challenge_id, created_at)
+            values\s""";
+
+    private static final String INSERT_NEW_DECISIONS_SUFFIX = " on conflict (id) do nothing returning id";
+
+    private final JdbcTemplate jdbc;
+
+    public DecisionBatchWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void insertDecisions(List<RiskDecisionEntity> rows) {
+        jdbc.batchUpdate(INSERT_DECISION, rows, rows.size(), (ps, d) -> {
+            ps.setObject(1, d.getId());
+            ps.setObject(2, d.getUserId());
+            ps.setString(3, d.getActionType());
+            ps.setBigDecimal(4, d.getAmount());
+            ps.setBytes(5, d.getDeviceHash());
+            ps.setString(6, d.getCountry());
+            ps.setInt(7, d.getRiskScore());
+            ps.setString(8, d.getRiskLevel());
+            ps.setString(9, d.getDecision());
+            ps.setBoolean(10, d.isStepUpRequired());
+            ps.setObject(11, d.getStepUpChallengeId());
+            ps.setTimestamp(12, Timestamp.from(d.getCreatedAt()));
+        });
+    }
+
+    /**
+     * One multi-row insert that skips ids already present.
+     *
+     * @return ids actually inserted by this call
+     */
+    public Set<UUID> insertNewDecisions(List<RiskDecisionEntity> rows) {
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+        String sql = INSERT_NEW_DECISIONS_PREFIX
+                + String.join(", ", Collections.nCopies(rows.size(), INSERT_DECISION_VALUES))
+                + INSERT_NEW_DECISIONS_SUFFIX;
+        Set<UUID> inserted = new HashSet<>(rows.size() * 2);
+        jdbc.query(sql, ps -> {
+            int i = 1;
+            for (RiskDecisionEntity d : rows) {
+                ps.setObject(i++, d.getId());
+                ps.setObject(i++, d.getUserId());
+                ps.setString(i++, d.getActionType());
+                ps.setBigDecimal(i++, d.getAmount());
+                ps.setBytes(i++, d.getDeviceHash());
+                ps.setString(i++, d.getCountry());
+                ps.setInt(i++, d.getRiskScore());
+                ps.setString(i++, d.getRiskLevel());
+                ps.setString(i++, d.getDecision());
+                ps.setBoolean(i++, d.isStepUpRequired());
+                ps.setObject(i++, d.getStepUpChallengeId());
+                ps.setTimestamp(i++, Timestamp.from(d.getCreatedAt()));
+            }
+        }, rs -> {
+            inserted.add(rs.getObject(1, UUID.class));
+        });
+        return inserted;
+    }
+
+    public void insertChallenge(StepUpChallengeEntity ch) {
+        jdbc.update(INSERT_CHALLENGE, ch.getId(), ch.getUserId(), ch.getDecisionId(), ch.getStatus(),
+                ch.getAttempts(), Timestamp.from(ch.getCreatedAt()));
+    }
+
+    public void insertOutbox(List<OutboxEventEntity> rows) {
+        jdbc.batchUpdate(INSERT_OUTBOX, rows, rows.size(), (ps, e) -> {
+            ps.setObject(1, e.getAggregateId());
+            ps.setString(2, e.getEventType());
+            ps.setString(3, e.getPayloadJson());
+            ps.setString(4, e.getStatus());
+            ps.setInt(5, e.getAttempts());
+            ps.setTimestamp(6, Timestamp.from(e.getNextAttemptAt()));
+            ps.setTimestamp(7, Timestamp.from(e.getCreatedAt()));
+        });
+    }
+
+    /** @return a {@code NEW} outbox row due now */
+    public static OutboxEventEntity outboxRow(UUID aggregateId, String type, String payloadJson, Instant now) {
+        OutboxEventEntity e = new OutboxEventEntity();
+        e.setAggregateId(aggregateId);
+        e.setEventType(type);
+        e.setPayloadJson(payloadJson);
+        e.setStatus("NEW");
+        e.setAttempts(0);
+        e.setNextAttemptAt(now);
+        e.setCreatedAt(now);
+        return e;
+    }
+}
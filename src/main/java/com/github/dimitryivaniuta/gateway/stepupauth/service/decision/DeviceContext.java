@@ -0,0 +1,23 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.decision;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Validated device/country request signals, shared by single and batch authorize.
+ *
+ * @param deviceHash SHA-256 of the trimmed {@code X-Device-Id}
+ * @param country    upper-cased ISO country code from {@code X-Country}
+ */
+record DeviceContext(byte[] deviceHash, String country) {
+
+    static DeviceContext resolve(String deviceId, String country) {
+        if (deviceId == null || deviceId.isBlank())
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Missing X-Device-Id");
+        if (country == null || country.isBlank() || country.length() != 2)
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Missing/invalid X-Country");
+
+        return new DeviceContext(SignalHasher.sha256Bytes(deviceId.trim()), country.toUpperCase());
+    }
+}
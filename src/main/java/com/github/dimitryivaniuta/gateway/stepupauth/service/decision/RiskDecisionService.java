@@ -1,6 +1,5 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.service.decision;
 
-import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeTransactionRequest;
 import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.AuthorizeTransactionResponse;
 import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OtpProperties;
@@ -8,19 +7,21 @@ import com.github.dimitryivaniuta.gateway.stepupauth.domain.RiskDecisionEntity;
 import com.github.dimitryivaniuta.gateway.stepupauth.domain.StepUpChallengeEntity;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.RiskDecisionRepository;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.StepUpChallengeRepository;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.geo.TravelService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.journal.DecisionJournalService;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring.MonitoringEventFactory;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring.MonitoringEvents;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.otp.OtpService;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.outbox.OutboxService;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskEngine;
-import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskShadowScorer;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.trust.TrustService;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.trust.TrustSignals;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.velocity.VelocityService;
 import jakarta.transaction.Transactional;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -37,6 +38,10 @@ public class RiskDecisionService {
     private final OutboxService outbox;
     private final MonitoringEventFactory events;
     private final OtpProperties otpProps;
+    private final VelocityService velocity;
+    private final TravelService travel;
+    private final RiskShadowScorer shadow;
+    private final DecisionJournalService journal;
 
     public RiskDecisionService(
             RiskEngine riskEngine,
@@ -46,7 +51,11 @@ public class RiskDecisionService {
             OtpService otp,
             OtpProperties otpProps,
             OutboxService outbox,
-            MonitoringEventFactory events
+            MonitoringEventFactory events,
+            VelocityService velocity,
+            TravelService travel,
+            RiskShadowScorer shadow,
+            DecisionJournalService journal
     ) {
         this.riskEngine = riskEngine;
         this.trust = trust;
@@ -56,6 +65,10 @@ public class RiskDecisionService {
         this.otpProps = otpProps;
         this.outbox = outbox;
         this.events = events;
+        this.velocity = velocity;
+        this.travel = travel;
+        this.shadow = shadow;
+        this.journal = journal;
     }
 
     /**
@@ -63,18 +76,17 @@ public class RiskDecisionService {
      */
     @Transactional
     public AuthorizeTransactionResponse authorize(UUID userId, String deviceId, String country, AuthorizeTransactionRequest req) {
-        if (deviceId == null || deviceId.isBlank())
-            throw new ApiException(HttpStatus.BAD_REQUEST, "Missing X-Device-Id");
-        if (country == null || country.isBlank() || country.length() != 2)
-            throw new ApiException(HttpStatus.BAD_REQUEST, "Missing/invalid X-Country");
+        DeviceContext device = DeviceContext.resolve(deviceId, country);
+        byte[] deviceHash = device.deviceHash();
+        String c = device.country();
 
-        String deviceHash = SignalHasher.sha256(deviceId.trim());
-        String c = country.toUpperCase();
+        TrustSignals signals = trust.signals(userId, deviceHash, c);
 
-        boolean isNewDevice = !trust.isDeviceTrusted(userId, deviceHash);
-        boolean isNewCountry = trust.isNewCountry(userId, c);
-
-        var assessment = riskEngine.assess(isNewDevice, isNewCountry, req.amount());
+        long riskSignals = signals.riskSignals()
+                | travel.signals(signals.lastCountry(), signals.lastCountryAt(), c)
+                | velocity.record(userId, deviceHash, req.amount());
+        var assessment = riskEngine.assess(req.actionType(), c, riskSignals, req.amount());
+        shadow.submit(req.actionType(), c, riskSignals, req.amount(), assessment);
 
         UUID decisionId = UUID.randomUUID();
 
@@ -96,9 +108,9 @@ public class RiskDecisionService {
             d.setStepUpRequired(true);
             d.setStepUpChallengeId(challengeId);
 
-            // IMPORTANT: flush decision first because Challenge has an FK to decision_id,
-            // and there is no JPA relationship to let Hibernate order inserts automatically.
-            decisions.saveAndFlush(d);
+            // The challenge -> decision FK is deferred to commit (V9), so both rows go out in the
+            // same batched flush together with the outbox rows.
+            decisions.save(d);
 
             StepUpChallengeEntity ch = new StepUpChallengeEntity();
             ch.setId(challengeId);
@@ -111,22 +123,10 @@ public class RiskDecisionService {
 
             String code = otp.generateAndStore(challengeId);
 
-            var e1 = events.base(MonitoringEvents.RISK_DECISION_MADE, userId, decisionId);
-            e1.putAll(Map.of(
-                    "riskScore", assessment.score(),
-                    "riskLevel", assessment.level().name(),
-                    "reasons", assessment.reasons(),
-                    "decision", "STEP_UP_REQUIRED"
-            ));
-            outbox.enqueue(decisionId, MonitoringEvents.RISK_DECISION_MADE, events.toJson(e1));
-
-            var e2 = events.base(MonitoringEvents.STEP_UP_REQUIRED, userId, decisionId);
-            e2.putAll(Map.of(
-                    "challengeId", challengeId.toString(),
-                    "riskScore", assessment.score(),
-                    "reasons", assessment.reasons()
-            ));
-            outbox.enqueue(decisionId, MonitoringEvents.STEP_UP_REQUIRED, events.toJson(e2));
+            outbox.enqueue(decisionId, MonitoringEvents.RISK_DECISION_MADE,
+                    events.riskDecisionMade(userId, decisionId, assessment, "STEP_UP_REQUIRED"));
+            outbox.enqueue(decisionId, MonitoringEvents.STEP_UP_REQUIRED,
+                    events.stepUpRequired(userId, decisionId, challengeId, assessment));
 
             return new AuthorizeTransactionResponse(
                     "STEP_UP_REQUIRED",
@@ -141,18 +141,14 @@ public class RiskDecisionService {
         // Safe path: approve and trust signals immediately (UX-friendly)
         d.setDecision("APPROVED");
         d.setStepUpRequired(false);
-        decisions.save(d);
-
-        trust.trust(userId, deviceHash, c);
-
-        var e1 = events.base(MonitoringEvents.RISK_DECISION_MADE, userId, decisionId);
-        e1.putAll(Map.of(
-                "riskScore", assessment.score(),
-                "riskLevel", assessment.level().name(),
-                "reasons", assessment.reasons(),
-                "decision", "APPROVED"
-        ));
-        outbox.enqueue(decisionId, MonitoringEvents.RISK_DECISION_MADE, events.toJson(e1));
+        String payload = events.riskDecisionMade(userId, decisionId, assessment, "APPROVED");
+
+        // Write-behind when the journal is enabled and healthy; the flusher writes the same three things.
+        if (!journal.append(d, payload)) {
+            decisions.save(d);
+            trust.trust(userId, deviceHash, c);
+            outbox.enqueue(decisionId, MonitoringEvents.RISK_DECISION_MADE, payload);
+        }
 
         return new AuthorizeTransactionResponse("APPROVED", decisionId, assessment.score(), assessment.level().name(), null, null);
     }
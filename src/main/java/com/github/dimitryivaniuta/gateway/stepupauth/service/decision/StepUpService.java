@@ -16,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -47,17 +48,24 @@ public class StepUpService {
         ch.setVerifiedAt(Instant.now());
         challenges.save(ch);
 
-        RiskDecisionEntity d = decisions.findById(ch.getDecisionId())
-            .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Decision not found"));
-        d.setDecision("APPROVED");
-        decisions.save(d);
+        // A batch authorize links several decisions to one challenge; approve all of them.
+        List<RiskDecisionEntity> linked = decisions.findByStepUpChallengeId(challengeId);
+        if (linked.isEmpty())
+            throw new ApiException(HttpStatus.NOT_FOUND, "Decision not found");
+        for (RiskDecisionEntity d : linked) {
+            d.setDecision("APPROVED");
+        }
+        decisions.saveAll(linked);
 
-        trust.trust(userId, d.getDeviceHash(), d.getCountry());
+        RiskDecisionEntity first = linked.get(0);
+        trust.trust(userId, first.getDeviceHash(), first.getCountry());
 
-        var e = events.base(MonitoringEvents.STEP_UP_VERIFIED, userId, d.getId());
-        e.putAll(Map.of("challengeId", challengeId.toString(), "decision", "APPROVED"));
-        outbox.enqueue(d.getId(), MonitoringEvents.STEP_UP_VERIFIED, events.toJson(e));
+        for (RiskDecisionEntity d : linked) {
+            var e = events.base(MonitoringEvents.STEP_UP_VERIFIED, userId, d.getId());
+            e.putAll(Map.of("challengeId", challengeId.toString(), "decision", "APPROVED"));
+            outbox.enqueue(d.getId(), MonitoringEvents.STEP_UP_VERIFIED, events.toJson(e));
+        }
 
-        return new StepUpVerifyResponse("VERIFIED", d.getId());
+        return new StepUpVerifyResponse("VERIFIED", ch.getDecisionId());
     }
 }
@@ -0,0 +1,14 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Risk decision export filter; {@code null} fields do not filter.
+ *
+ * @param from      inclusive lower bound on {@code created_at}
+ * @param to        exclusive upper bound on {@code created_at}
+ * @param decision  e.g. {@code APPROVED}
+ * @param riskLevel e.g. {@code HIGH}
+ */
+public record DecisionExportFilter(Instant from, Instant to, UUID userId, String decision, String riskLevel) { }
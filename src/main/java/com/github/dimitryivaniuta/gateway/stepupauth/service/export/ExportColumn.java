@@ -0,0 +1,50 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/** One exported column: its name in the file and how its value is read and rendered. */
+record ExportColumn(String name, Type type) {
+
+    enum Type {
+        TEXT, NUMBER, BOOLEAN, TIMESTAMP,
+        /** JSON text: embedded as-is in NDJSON, quoted in CSV. */
+        JSON
+    }
+
+    static ExportColumn text(String name) {
+        return new ExportColumn(name, Type.TEXT);
+    }
+
+    static ExportColumn number(String name) {
+        return new ExportColumn(name, Type.NUMBER);
+    }
+
+    static ExportColumn bool(String name) {
+        return new ExportColumn(name, Type.BOOLEAN);
+    }
+
+    static ExportColumn timestamp(String name) {
+        return new ExportColumn(name, Type.TIMESTAMP);
+    }
+
+    static ExportColumn json(String name) {
+        return new ExportColumn(name, Type.JSON);
+    }
+
+    /** @return the value as text ({@code null} for SQL null); timestamps as ISO-8601 instants */
+    String read(ResultSet rs) throws SQLException {
+        return switch (type) {
+            case BOOLEAN -> {
+                boolean v = rs.getBoolean(name);
+                yield rs.wasNull() ? null : Boolean.toString(v);
+            }
+            case TIMESTAMP -> {
+                Timestamp ts = rs.getTimestamp(name);
+                yield ts == null ? null : ts.toInstant().toString();
+            }
+            default -> rs.getString(name);
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Locale;
+
+/** Export file formats. */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /** @throws ApiException 400 for an unknown format */
+    public static ExportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + value);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.ExportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams risk decisions and outbox history to an output stream as NDJSON or CSV.
+ *
+ * <p>Rows are read oldest first in keyset chunks on {@code (created_at, id)}. Each chunk runs in its own
+ * read-only transaction with a fetch size set, so the Postgres driver reads through a server-side cursor
+ * instead of materializing the result, and every row is written out as soon as it is read. Memory is
+ * bounded by one fetch and the writer buffers; no transaction or snapshot outlives one chunk, so a
+ * multi-hour export neither pins vacuum nor holds a connection between chunks. Rows committed while an
+ * export runs show up in it if they sort after the current position.</p>
+ *
+ * <p>At most {@code app.export.max-concurrent} exports run per node; see {@link #acquire()}.</p>
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final String DECISIONS_SELECT = """
+            select id, user_id, action_type, amount, encode(device_hash, 'hex') as device_hash, country,
+                   risk_score, risk_level, decision, step_up_required, step_up_challenge_id, created_at
+            from risk_decision
+            where true""";
+
+    private static final List<ExportColumn> DECISION_COLUMNS = List.of(
+            ExportColumn.text("id"),
+            ExportColumn.text("user_id"),
+            ExportColumn.text("action_type"),
+            ExportColumn.number("amount"),
+            ExportColumn.text("device_hash"),
+            ExportColumn.text("country"),
+            ExportColumn.number("risk_score"),
+            ExportColumn.text("risk_level"),
+            ExportColumn.text("decision"),
+            ExportColumn.bool("step_up_required"),
+            ExportColumn.text("step_up_challenge_id"),
+            ExportColumn.timestamp("created_at"));
+
+    private static final String OUTBOX_SELECT = """
+            select id, aggregate_id, event_type, status, attempts, created_at, next_attempt_at, published_at,
+                   last_error, payload_json::text as payload_json
+            from outbox_event
+            where true""";
+
+    private static final List<ExportColumn> OUTBOX_COLUMNS = List.of(
+            ExportColumn.number("id"),
+            ExportColumn.text("aggregate_id"),
+            ExportColumn.text("event_type"),
+            ExportColumn.text("status"),
+            ExportColumn.number("attempts"),
+            ExportColumn.timestamp("created_at"),
+            ExportColumn.timestamp("next_attempt_at"),
+            ExportColumn.timestamp("published_at"),
+            ExportColumn.text("last_error"),
+            ExportColumn.json("payload_json"));
+
+    private final ExportProperties props;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final Semaphore running;
+    private final MeterRegistry registry;
+
+    public ExportService(ExportProperties props, DataSource dataSource, PlatformTransactionManager txManager,
+                         ObjectMapper mapper, MeterRegistry registry) {
+        this.props = props;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(props.fetchSize());
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+        this.mapper = mapper;
+        this.running = new Semaphore(props.maxConcurrent());
+        this.registry = registry;
+    }
+
+    /**
+     * Takes an export slot; call before the response is committed and {@link #release()} exactly once
+     * when the request ends, whichever way (including when the export task never gets to run).
+     *
+     * @throws ApiException 429 when {@code max-concurrent} exports are already running
+     */
+    public void acquire() {
+        if (!running.tryAcquire()) {
+            throw new ApiException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports running, retry later");
+        }
+    }
+
+    public void release() {
+        running.release();
+    }
+
+    /** @return rows written */
+    public long exportDecisions(DecisionExportFilter f, ExportFormat format, OutputStream out) throws IOException {
+        StringBuilder where = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        range(where, args, f.from(), f.to());
+        eq(where, args, "user_id", f.userId());
+        eq(where, args, "decision", f.decision());
+        eq(where, args, "risk_level", f.riskLevel());
+        return stream("risk_decision", DECISIONS_SELECT + where, args, DECISION_COLUMNS, format, out);
+    }
+
+    /** @return rows written */
+    public long exportOutbox(OutboxExportFilter f, ExportFormat format, OutputStream out) throws IOException {
+        StringBuilder where = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        range(where, args, f.from(), f.to());
+        eq(where, args, "event_type", f.eventType());
+        eq(where, args, "status", f.status());
+        return stream("outbox_event", OUTBOX_SELECT + where, args, OUTBOX_COLUMNS, format, out);
+    }
+
+    private long stream(String dataset, String select, List<Object> filterArgs, List<ExportColumn> columns,
+                        ExportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Counter rowsCounter = Counter.builder("admin.export.rows").tag("dataset", dataset).register(registry);
+        ExportWriter writer = ExportWriter.of(format, columns, out, mapper.getFactory());
+        Keyset last = new Keyset();
+        long total = 0;
+
+        while (true) {
+            List<Object> args = new ArrayList<>(filterArgs);
+            StringBuilder sql = new StringBuilder(select);
+            if (last.createdAt != null) {
+                sql.append(" and (created_at, id) > (?, ?)");
+                args.add(last.createdAt);
+                args.add(last.id);
+            }
+            sql.append(" order by created_at, id limit ?");
+            args.add(props.chunkSize());
+
+            int rows;
+            try {
+                rows = tx.execute(status -> readChunk(sql.toString(), args, columns, writer, last));
+            } catch (UncheckedIOException ex) {
+                // Client went away; the read-only transaction has been rolled back.
+                throw ex.getCause();
+            }
+            writer.flush();
+            total += rows;
+            rowsCounter.increment(rows);
+            if (rows < props.chunkSize()) {
+                break;
+            }
+        }
+        writer.finish();
+        log.info("Exported {} {} rows as {} in {} ms", total, dataset, format,
+                (System.nanoTime() - start) / 1_000_000);
+        return total;
+    }
+
+    private int readChunk(String sql, List<Object> args, List<ExportColumn> columns, ExportWriter writer,
+                          Keyset last) {
+        int[] count = {0};
+        jdbc.query(sql, rs -> {
+            String[] values = new String[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns.get(i).read(rs);
+            }
+            try {
+                writer.row(values);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            last.createdAt = rs.getTimestamp("created_at");
+            last.id = rs.getObject("id");
+            count[0]++;
+        }, args.toArray());
+        return count[0];
+    }
+
+    private static void range(StringBuilder where, List<Object> args, Instant from, Instant to) {
+        if (from != null) {
+            where.append(" and created_at >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            where.append(" and created_at < ?");
+            args.add(Timestamp.from(to));
+        }
+    }
+
+    private static void eq(StringBuilder where, List<Object> args, String column, Object value) {
+        if (value != null) {
+            where.append(" and ").append(column).append(" = ?");
+            args.add(value);
+        }
+    }
+
+    /** Position after the last exported row (full-precision timestamp, so no row is skipped or repeated). */
+    private static final class Keyset {
+        Timestamp createdAt;
+        Object id;
+    }
+}
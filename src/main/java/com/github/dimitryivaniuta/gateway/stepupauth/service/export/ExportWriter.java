@@ -0,0 +1,130 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** Writes rows to an export stream one at a time; nothing is kept after a row is written. */
+interface ExportWriter {
+
+    void row(String[] values) throws IOException;
+
+    /** Pushes buffered rows to the client (called after every chunk). */
+    void flush() throws IOException;
+
+    /** Flushes; the underlying stream stays open. */
+    void finish() throws IOException;
+
+    static ExportWriter of(ExportFormat format, List<ExportColumn> columns, OutputStream out,
+                           JsonFactory json) throws IOException {
+        return switch (format) {
+            case NDJSON -> new Ndjson(columns, out, json);
+            case CSV -> new Csv(columns, out);
+        };
+    }
+
+    /** One JSON object per line. */
+    final class Ndjson implements ExportWriter {
+        private final List<ExportColumn> columns;
+        private final JsonGenerator gen;
+
+        Ndjson(List<ExportColumn> columns, OutputStream out, JsonFactory json) throws IOException {
+            this.columns = columns;
+            this.gen = json.createGenerator(out);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(String[] values) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                ExportColumn c = columns.get(i);
+                String v = values[i];
+                gen.writeFieldName(c.name());
+                if (v == null) {
+                    gen.writeNull();
+                    continue;
+                }
+                switch (c.type()) {
+                    case NUMBER -> gen.writeNumber(v);
+                    case BOOLEAN -> gen.writeBoolean(Boolean.parseBoolean(v));
+                    case JSON -> gen.writeRawValue(v);
+                    default -> gen.writeString(v);
+                }
+            }
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gen.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            gen.close();
+        }
+    }
+
+    /** RFC 4180: header line, CRLF line ends, fields quoted when they contain a comma, quote or line break. */
+    final class Csv implements ExportWriter {
+        private final Writer out;
+
+        Csv(List<ExportColumn> columns, OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            String[] header = new String[columns.size()];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = columns.get(i).name();
+            }
+            row(header);
+        }
+
+        @Override
+        public void row(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                String v = values[i];
+                if (v != null) {
+                    field(v);
+                }
+            }
+            out.write("\r\n");
+        }
+
+        private void field(String v) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < v.length() && !quote; i++) {
+                char ch = v.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                out.write(v);
+                return;
+            }
+            out.write('"');
+            out.write(v.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+}
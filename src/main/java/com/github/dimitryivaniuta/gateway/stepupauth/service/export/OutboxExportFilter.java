@@ -0,0 +1,13 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import java.time.Instant;
+
+/**
+ * Outbox history export filter; {@code null} fields do not filter.
+ *
+ * @param from      inclusive lower bound on {@code created_at}
+ * @param to        exclusive upper bound on {@code created_at}
+ * @param eventType e.g. {@code RISK_DECISION_MADE}
+ * @param status    e.g. {@code PUBLISHED}
+ */
+public record OutboxExportFilter(Instant from, Instant to, String eventType, String status) { }
@@ -0,0 +1,133 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Great-circle distances between country centroids, precomputed into a dense matrix.
+ *
+ * <p>An ISO 3166-1 alpha-2 code maps to its ordinal {@code (c0 - 'A') * 26 + (c1 - 'A')}; a 676-entry
+ * table turns the ordinal into a compact row index, and the distances (whole kilometres) sit in one
+ * {@code short[n * n]}. A lookup is therefore two index reads and one matrix read: no hashing, no
+ * boxing, no allocation.</p>
+ *
+ * <p>Centroid distances are coarse for large or neighbouring countries; callers should ignore short
+ * distances rather than trust them.</p>
+ */
+public final class CountryDistances {
+
+    /** Returned by {@link #km} when either code is not in the table. */
+    public static final int UNKNOWN = -1;
+
+    private static final int ORDINALS = 26 * 26;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final short[] index;
+    private final short[] km;
+    private final int size;
+
+    private CountryDistances(short[] index, short[] km, int size) {
+        this.index = index;
+        this.km = km;
+        this.size = size;
+    }
+
+    /**
+     * Reads {@code ISO2,lat,lon} lines ({@code #} comments and blank lines are skipped) and
+     * precomputes the full distance matrix.
+     */
+    public static CountryDistances load(InputStream in) throws IOException {
+        List<String> codes = new ArrayList<>();
+        List<double[]> points = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] f = line.split(",");
+                if (f.length != 3 || ordinal(f[0]) < 0) {
+                    throw new IllegalArgumentException("Invalid centroid line: " + line);
+                }
+                codes.add(f[0]);
+                points.add(new double[]{Double.parseDouble(f[1]), Double.parseDouble(f[2])});
+            }
+        }
+        return of(codes, points);
+    }
+
+    static CountryDistances of(List<String> codes, List<double[]> points) {
+        int n = codes.size();
+        short[] index = new short[ORDINALS];
+        Arrays.fill(index, (short) UNKNOWN);
+        for (int i = 0; i < n; i++) {
+            int o = ordinal(codes.get(i));
+            if (index[o] != UNKNOWN) {
+                throw new IllegalArgumentException("Duplicate country: " + codes.get(i));
+            }
+            index[o] = (short) i;
+        }
+
+        short[] km = new short[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                short d = (short) Math.round(haversineKm(points.get(i), points.get(j)));
+                km[i * n + j] = d;
+                km[j * n + i] = d;
+            }
+        }
+        return new CountryDistances(index, km, n);
+    }
+
+    /**
+     * @return centroid distance in kilometres, or {@link #UNKNOWN} if either code is unknown
+     */
+    public int km(String from, String to) {
+        int i = indexOf(from);
+        int j = indexOf(to);
+        if (i < 0 || j < 0) {
+            return UNKNOWN;
+        }
+        return km[i * size + j];
+    }
+
+    /** @return number of countries in the table */
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(String code) {
+        int o = ordinal(code);
+        return o < 0 ? UNKNOWN : index[o];
+    }
+
+    /** Case-insensitive; {@code -1} for anything that is not two ASCII letters. */
+    private static int ordinal(String code) {
+        if (code == null || code.length() != 2) {
+            return -1;
+        }
+        int c0 = (code.charAt(0) | 0x20) - 'a';
+        int c1 = (code.charAt(1) | 0x20) - 'a';
+        if (c0 < 0 || c0 >= 26 || c1 < 0 || c1 >= 26) {
+            return -1;
+        }
+        return c0 * 26 + c1;
+    }
+
+    private static double haversineKm(double[] a, double[] b) {
+        double lat1 = Math.toRadians(a[0]);
+        double lat2 = Math.toRadians(b[0]);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(b[1] - a[1]);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.geo;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.TravelProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
+/**
+ * Raises {@link RiskSignal#IMPOSSIBLE_TRAVEL} when getting from the last trusted country to the request
+ * country since {@code country_profile.updated_at} would need more than {@code app.risk.travel.max-speed-kmh}.
+ *
+ * <p>The check is integer arithmetic over {@link CountryDistances}, so it is free on the authorize path.
+ * {@code updated_at} may lag by up to {@code app.trust.touch-granularity}, which only lowers the implied
+ * speed.</p>
+ */
+@Service
+public class TravelService {
+
+    static final String CENTROIDS = "geo/country-centroids.csv";
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private final CountryDistances distances;
+    private final boolean enabled;
+    private final long maxSpeedKmh;
+    private final int minDistanceKm;
+
+    public TravelService(TravelProperties props) throws IOException {
+        try (InputStream in = new ClassPathResource(CENTROIDS).getInputStream()) {
+            this.distances = CountryDistances.load(in);
+        }
+        this.enabled = props.enabled();
+        this.maxSpeedKmh = props.maxSpeedKmh();
+        this.minDistanceKm = props.minDistanceKm();
+    }
+
+    /**
+     * @param lastCountry   last trusted country, or {@code null}
+     * @param lastCountryAt when it was recorded, or {@code null}
+     * @param country       request country
+     * @return the {@code IMPOSSIBLE_TRAVEL} bit, or 0
+     */
+    public long signals(String lastCountry, Instant lastCountryAt, String country, long nowMillis) {
+        if (!enabled || lastCountry == null || lastCountryAt == null) {
+            return 0L;
+        }
+        int km = distances.km(lastCountry, country);
+        if (km == CountryDistances.UNKNOWN || km < minDistanceKm) {
+            return 0L;
+        }
+        long elapsedMillis = Math.max(0L, nowMillis - lastCountryAt.toEpochMilli());
+        // km / hours > maxSpeed, without dividing
+        return RiskSignal.IMPOSSIBLE_TRAVEL.when(km * MILLIS_PER_HOUR > maxSpeedKmh * elapsedMillis);
+    }
+
+    /** Same as {@link #signals(String, Instant, String, long)} at the current time. */
+    public long signals(String lastCountry, Instant lastCountryAt, String country) {
+        return signals(lastCountry, lastCountryAt, country, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,256 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.IdempotencyProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the response of a request retried with the same {@code Idempotency-Key}.
+ *
+ * <p>Responses are keyed by (user, operation, key) and remembered for {@code app.idempotency.ttl}: first
+ * in a bounded in-process cache, then in Redis ({@code idem:<user>:<op>:<key>}) so a retry routed to
+ * another node is answered too. A duplicate that arrives while the original is still running waits for
+ * it instead of recomputing: on the same node it joins the in-flight future, across nodes it polls the
+ * Redis in-flight marker (set with {@code SET NX}) until the response appears or
+ * {@code in-flight-timeout} passes ({@code 409}). The marker lives for {@code pending-ttl}, which must
+ * outlast the slowest action: once it expires another node runs the action again.</p>
+ *
+ * <p>Each key is bound to a fingerprint of the request; reusing it for a different request is
+ * {@code 422}. Only successful responses are stored, so a failed request can be retried with the same
+ * key. Outcomes are counted in {@code idempotency.requests{result}}.</p>
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final Pattern KEY = Pattern.compile("[\\x21-\\x7E]{1,128}");
+    private static final String REDIS_PREFIX = "idem:";
+    private static final String PENDING = "P:";
+    private static final String DONE = "D:";
+    private static final long POLL_MILLIS = 50;
+
+    private final IdempotencyProperties props;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper mapper;
+    private final Cache<String, Stored> local;
+    private final ConcurrentHashMap<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter joined;
+    private final Counter conflicts;
+    private final Counter mismatches;
+
+    /** A completed response and the fingerprint of the request that produced it. */
+    private record Stored(String fingerprint, Object response) { }
+
+    public IdempotencyService(IdempotencyProperties props, StringRedisTemplate redis, ObjectMapper mapper,
+                              MeterRegistry registry) {
+        this.props = props;
+        this.redis = redis;
+        this.mapper = mapper;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(props.localMaxSize())
+                .expireAfterWrite(props.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, local, "idempotency");
+        this.executed = counter(registry, "executed");
+        this.localHits = counter(registry, "replayed_local");
+        this.redisHits = counter(registry, "replayed_redis");
+        this.joined = counter(registry, "joined_in_flight");
+        this.conflicts = counter(registry, "in_flight_timeout");
+        this.mismatches = counter(registry, "fingerprint_mismatch");
+    }
+
+    /**
+     * Runs {@code action} once per (user, operation, key) and replays its response to duplicates.
+     *
+     * @param key          {@code Idempotency-Key} header, or {@code null} to just run the action
+     * @param request      everything that identifies the request (body, path and header values)
+     * @param responseType response class (for responses read back from Redis)
+     */
+    public <T> T execute(UUID userId, String operation, String key, Object request, Class<T> responseType,
+                         Supplier<T> action) {
+        if (!props.enabled() || key == null) {
+            return action.get();
+        }
+        if (!KEY.matcher(key).matches()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key");
+        }
+        String id = userId + ":" + operation + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        Stored stored = local.getIfPresent(id);
+        if (stored != null) {
+            localHits.increment();
+            return replay(stored, fingerprint, responseType);
+        }
+
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            joined.increment();
+            return replay(await(running), fingerprint, responseType);
+        }
+        // The original may have finished between the cache lookup and putIfAbsent.
+        stored = local.getIfPresent(id);
+        if (stored != null) {
+            inFlight.remove(id, mine);
+            mine.complete(stored);
+            localHits.increment();
+            return replay(stored, fingerprint, responseType);
+        }
+        try {
+            Stored result = props.redis()
+                    ? executeShared(id, fingerprint, responseType, action)
+                    : new Stored(fingerprint, run(action));
+            local.put(id, result);
+            mine.complete(result);
+            return replay(result, fingerprint, responseType);
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private <T> Stored executeShared(String id, String fingerprint, Class<T> type, Supplier<T> action) {
+        String redisKey = REDIS_PREFIX + id;
+        long deadline = System.nanoTime() + props.inFlightTimeout().toNanos();
+        boolean waiting = false;
+        while (true) {
+            Boolean acquired;
+            try {
+                acquired = redis.opsForValue().setIfAbsent(redisKey, PENDING + fingerprint, props.pendingTtl());
+            } catch (DataAccessException ex) {
+                log.warn("Idempotency store unavailable, deduplicating on this node only: {}", ex.getMessage());
+                return new Stored(fingerprint, run(action));
+            }
+            if (Boolean.TRUE.equals(acquired)) {
+                return runAndPublish(redisKey, fingerprint, action);
+            }
+
+            String value = redis.opsForValue().get(redisKey);
+            if (value != null && value.startsWith(DONE)) {
+                redisHits.increment();
+                return read(value, type);
+            }
+            if (value != null && !value.startsWith(PENDING + fingerprint)) {
+                mismatches.increment();
+                throw mismatch();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                conflicts.increment();
+                throw new ApiException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            if (value != null && !waiting) {
+                waiting = true;
+                joined.increment();
+            }
+            sleep();
+        }
+    }
+
+    private <T> Stored runAndPublish(String redisKey, String fingerprint, Supplier<T> action) {
+        T response;
+        try {
+            response = run(action);
+        } catch (RuntimeException ex) {
+            redis.delete(redisKey);
+            throw ex;
+        }
+        try {
+            redis.opsForValue().set(redisKey, DONE + fingerprint + "\n" + mapper.writeValueAsString(response), props.ttl());
+        } catch (JsonProcessingException | DataAccessException ex) {
+            log.warn("Could not store idempotent response in Redis: {}", ex.getMessage());
+        }
+        return new Stored(fingerprint, response);
+    }
+
+    private <T> T run(Supplier<T> action) {
+        executed.increment();
+        return action.get();
+    }
+
+    private Stored read(String value, Class<?> type) {
+        int nl = value.indexOf('\n');
+        try {
+            return new Stored(value.substring(DONE.length(), nl), mapper.readValue(value.substring(nl + 1), type));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Corrupt idempotent response", ex);
+        }
+    }
+
+    private <T> T replay(Stored stored, String fingerprint, Class<T> type) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatches.increment();
+            throw mismatch();
+        }
+        return type.cast(stored.response());
+    }
+
+    private Stored await(CompletableFuture<Stored> running) {
+        try {
+            return running.get(props.inFlightTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            conflicts.increment();
+            throw new ApiException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return SignalHasher.sha256(mapper.writeValueAsString(request));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+
+    private static ApiException mismatch() {
+        return new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was used for a different request");
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("idempotency.requests").tag("result", result).register(registry);
+    }
+}
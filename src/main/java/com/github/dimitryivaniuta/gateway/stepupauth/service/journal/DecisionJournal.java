@@ -0,0 +1,372 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.journal;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal with group fsync.
+ *
+ * <p>Layout: fixed-size segment files {@code <seq>.seg}, zero-filled when created. A record is
+ * {@code [int length][int crc32][bytes]}; a zero length ends a segment's data and records never span
+ * segments. A position is {@code seq << 32 | offset} of a record's first byte, so positions are ordered
+ * across segments.</p>
+ *
+ * <p>Group fsync: appenders copy their record into the mapping under a short lock and wait in
+ * {@link #awaitDurable}; the sync thread forces everything written so far in one {@code msync}, so all
+ * appenders that arrived while a force was running share the next one.</p>
+ *
+ * <p>The {@code checkpoint} file holds the position from which records may not be in Postgres yet: the
+ * first record still {@linkplain #release unreleased}, or the append position when none is. On open,
+ * records from the checkpoint onwards are {@linkplain #recovered() recovered} for replay and appends
+ * continue in a fresh segment.</p>
+ */
+@Slf4j
+final class DecisionJournal implements Closeable {
+
+    private static final String SUFFIX = ".seg";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER = 8;
+    private static final int MAX_SEGMENT = 1 << 30;
+
+    /** A journaled record and its position. */
+    record Entry(long position, JournaledDecision decision) { }
+
+    private final Path dir;
+    private final int segmentSize;
+    private final Timer fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final ConcurrentSkipListSet<Long> unreleased = new ConcurrentSkipListSet<>();
+    private final List<Entry> recovered;
+    private final Thread syncer;
+
+    private long seq;
+    private MappedByteBuffer active;
+    private int offset;
+    private long writtenPos;
+    private long syncedPos;
+    private long checkpointPos = -1;
+    private boolean closed;
+
+    DecisionJournal(Path dir, long segmentSize, Timer fsync) throws IOException {
+        if (segmentSize <= HEADER || segmentSize > MAX_SEGMENT) {
+            throw new IllegalArgumentException("Journal segment size must be between 8 bytes and 1GB");
+        }
+        this.dir = dir;
+        this.segmentSize = (int) segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+
+        long checkpoint = readCheckpoint();
+        List<Long> segments = segments();
+        this.recovered = new ArrayList<>();
+        for (long s : segments) {
+            if (s < seqOf(checkpoint)) {
+                Files.deleteIfExists(segment(s));
+            } else {
+                scan(s, s == seqOf(checkpoint) ? offsetOf(checkpoint) : 0);
+            }
+        }
+        for (Entry e : recovered) {
+            unreleased.add(e.position());
+        }
+
+        this.seq = Math.max(seqOf(checkpoint), segments.isEmpty() ? 0 : segments.get(segments.size() - 1)) + 1;
+        this.active = map(seq);
+        this.writtenPos = position(seq, 0);
+        this.syncedPos = writtenPos;
+
+        this.syncer = Thread.ofPlatform().name("decision-journal-sync").daemon().start(this::syncLoop);
+    }
+
+    /** @return records found after the checkpoint on open (oldest first); they stay unreleased until flushed */
+    List<Entry> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Copies one record into the journal. It is not durable until {@link #awaitDurable} returns true, and
+     * holds back the checkpoint until it is {@linkplain #release released}.
+     *
+     * @return the record's position
+     */
+    long append(byte[] data) throws IOException {
+        if (HEADER + data.length > segmentSize) {
+            throw new IOException("Journal record of " + data.length + " bytes exceeds the segment size");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Journal closed");
+            }
+            if (offset + HEADER + data.length > segmentSize) {
+                roll();
+            }
+            long pos = position(seq, offset);
+            active.putInt(offset + 4, (int) crc.getValue());
+            active.put(offset + HEADER, data);
+            active.putInt(offset, data.length);
+            offset += HEADER + data.length;
+            writtenPos = position(seq, offset);
+            unreleased.add(pos);
+            appended.signal();
+            return pos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the record at {@code position} has been forced to disk.
+     *
+     * @return false on timeout
+     */
+    boolean awaitDurable(long position, Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (syncedPos <= position) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = durable.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Marks a record as no longer needed for replay (written to Postgres, or written synchronously instead). */
+    void release(long position) {
+        unreleased.remove(position);
+    }
+
+    /**
+     * Persists the replay start (first unreleased record, else the append position) and deletes the
+     * segments before it. A no-op when it did not move.
+     */
+    void checkpoint() throws IOException {
+        long pos;
+        lock.lock();
+        try {
+            Long first = unreleased.ceiling(Long.MIN_VALUE);
+            pos = first != null ? first : writtenPos;
+        } finally {
+            lock.unlock();
+        }
+        if (pos == checkpointPos) {
+            return;
+        }
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.allocate(8).putLong(0, pos));
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        long firstKept = seqOf(pos);
+        for (long s : segments()) {
+            if (s < firstKept) {
+                Files.deleteIfExists(segment(s));
+            }
+        }
+        checkpointPos = pos;
+    }
+
+    /** Stops the sync thread after a final force; pending {@link #awaitDurable} calls time out. */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            syncer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean closed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            MappedByteBuffer segment;
+            int length;
+            long target;
+            lock.lock();
+            try {
+                while (writtenPos == syncedPos && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (writtenPos == syncedPos) {
+                    return;
+                }
+                segment = active;
+                length = offset;
+                target = writtenPos;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                long start = System.nanoTime();
+                segment.force(0, length);
+                fsync.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException ex) {
+                log.error("Decision journal fsync failed, retrying: {}", ex.getMessage());
+                if (closed()) {
+                    return;
+                }
+                sleepQuietly();
+                continue;
+            }
+
+            lock.lock();
+            try {
+                if (target > syncedPos) {
+                    syncedPos = target;
+                }
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Called under the lock: forces the full segment (rare) and maps the next one. The next segment is
+     * mapped before any state moves, so a failed roll leaves the journal on the old, full segment.
+     */
+    private void roll() throws IOException {
+        active.force(0, offset);
+        syncedPos = writtenPos;
+        durable.signalAll();
+        MappedByteBuffer next = map(seq + 1);
+        seq++;
+        active = next;
+        offset = 0;
+        writtenPos = position(seq, 0);
+        syncedPos = writtenPos;
+    }
+
+    private MappedByteBuffer map(long s) throws IOException {
+        Path file = segment(s);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            ch.force(true);
+            return buf;
+        } catch (IOException ex) {
+            // Do not leave a half-created segment behind: the next roll creates it again.
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    private void scan(long s, int from) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(segment(s), StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        int off = from;
+        boolean torn = false;
+        while (off + HEADER <= buf.limit()) {
+            int len = buf.getInt(off);
+            if (len <= 0 || off + HEADER + len > buf.limit()) {
+                torn = len != 0;
+                break;
+            }
+            byte[] data = new byte[len];
+            buf.get(off + HEADER, data);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            if ((int) crc.getValue() != buf.getInt(off + 4)) {
+                torn = true;
+                break;
+            }
+            recovered.add(new Entry(position(s, off), JournaledDecision.decode(ByteBuffer.wrap(data))));
+            off += HEADER + len;
+        }
+        if (torn) {
+            log.warn("Decision journal segment {} ends with a torn record at offset {}; ignoring the rest", s, off);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path p = dir.resolve(CHECKPOINT);
+        if (!Files.exists(p)) {
+            return 0L;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(p)).getLong();
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(n -> n.endsWith(SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(0, n.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segment(long s) {
+        return dir.resolve(String.format("%016d%s", s, SUFFIX));
+    }
+
+    private static long position(long s, int off) {
+        return s << 32 | off;
+    }
+
+    private static long seqOf(long position) {
+        return position >>> 32;
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.journal;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.DecisionJournalProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.RiskDecisionEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.DecisionBatchWriter;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring.MonitoringEvents;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.outbox.OutboxNotifier;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.trust.TrustService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind path for APPROVED decisions ({@code app.decisions.journal}).
+ *
+ * <p>{@link #append} journals the decision and returns once it is fsynced (group commit with concurrent
+ * callers); the request then answers without touching Postgres. A single flusher thread drains the
+ * journaled decisions in batches and, per batch and in one transaction, inserts the decisions with one
+ * multi-row {@code insert ... on conflict do nothing}, upserts the trust baseline once per
+ * user/device/country and inserts the {@code RISK_DECISION_MADE} outbox rows of the decisions that were
+ * new. After commit the journal checkpoint moves past the batch.</p>
+ *
+ * <p>On startup the records after the checkpoint are replayed through the same flusher; replay is
+ * idempotent on the decision id, so a crash between commit and checkpoint neither duplicates decisions
+ * nor their events.</p>
+ *
+ * <p>Trade-off: the trust baseline is updated when the batch is flushed (milliseconds later), so a request
+ * racing the flush may still see the device or country as new. Step-up decisions never use this path.</p>
+ */
+@Slf4j
+@Service
+public class DecisionJournalService {
+
+    private final DecisionJournalProperties props;
+    private final DecisionBatchWriter writer;
+    private final TrustService trust;
+    private final OutboxNotifier outboxNotifier;
+    private final TransactionTemplate tx;
+    private final LinkedBlockingQueue<DecisionJournal.Entry> pending = new LinkedBlockingQueue<>();
+    private final DecisionJournal journal;
+    private final Thread flusher;
+    private final Counter flushed;
+    private final Counter fallbacks;
+    private final Counter dropped;
+    private final Counter flushFailures;
+    private volatile boolean running = true;
+
+    public DecisionJournalService(DecisionJournalProperties props, DecisionBatchWriter writer, TrustService trust,
+                                  OutboxNotifier outboxNotifier, PlatformTransactionManager txManager,
+                                  MeterRegistry registry) throws IOException {
+        this.props = props;
+        this.writer = writer;
+        this.trust = trust;
+        this.outboxNotifier = outboxNotifier;
+        this.tx = new TransactionTemplate(txManager);
+        this.flushed = Counter.builder("decision.journal.records").tag("result", "flushed").register(registry);
+        this.fallbacks = Counter.builder("decision.journal.records").tag("result", "synchronous").register(registry);
+        this.dropped = Counter.builder("decision.journal.records").tag("result", "dropped").register(registry);
+        this.flushFailures = Counter.builder("decision.journal.flush.failures").register(registry);
+
+        if (!props.enabled()) {
+            this.journal = null;
+            this.flusher = null;
+            return;
+        }
+
+        Timer fsync = Timer.builder("decision.journal.fsync").register(registry);
+        this.journal = new DecisionJournal(Path.of(props.directory()), props.segmentSize().toBytes(), fsync);
+        if (!journal.recovered().isEmpty()) {
+            log.warn("Replaying {} journaled decisions from {}", journal.recovered().size(), props.directory());
+            pending.addAll(journal.recovered());
+        }
+        Gauge.builder("decision.journal.pending", pending, LinkedBlockingQueue::size).register(registry);
+        this.flusher = Thread.ofPlatform().name("decision-journal-flush").daemon().start(this::flushLoop);
+    }
+
+    public boolean enabled() {
+        return journal != null;
+    }
+
+    /**
+     * Journals an APPROVED decision. When this returns true the decision is durable and reaches Postgres
+     * through the flusher; the caller must not write it.
+     *
+     * @return false when the journal cannot take it (disabled, flush backlog above {@code max-pending},
+     *         fsync slower than {@code sync-timeout}, I/O error): write it synchronously instead
+     */
+    public boolean append(RiskDecisionEntity d, String payloadJson) {
+        if (journal == null || pending.size() >= props.maxPending()) {
+            return false;
+        }
+        JournaledDecision record = JournaledDecision.of(d, payloadJson);
+        long position;
+        try {
+            position = journal.append(record.encode());
+        } catch (IOException ex) {
+            log.warn("Decision journal append failed, writing synchronously: {}", ex.getMessage());
+            fallbacks.increment();
+            return false;
+        }
+        try {
+            if (journal.awaitDurable(position, props.syncTimeout())) {
+                pending.add(new DecisionJournal.Entry(position, record));
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Written synchronously by the caller; if it is replayed anyway, the insert skips the known id.
+        journal.release(position);
+        fallbacks.increment();
+        return false;
+    }
+
+    private void flushLoop() {
+        List<DecisionJournal.Entry> batch = new ArrayList<>(props.flushBatchSize());
+        while (running || !pending.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    DecisionJournal.Entry first = pending.poll(props.flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, props.flushBatchSize() - 1);
+                }
+                try {
+                    tx.executeWithoutResult(status -> flush(batch));
+                } catch (DataIntegrityViolationException ex) {
+                    flushOneByOne(batch);
+                }
+                for (DecisionJournal.Entry e : batch) {
+                    journal.release(e.position());
+                }
+                flushed.increment(batch.size());
+                batch.clear();
+                journal.checkpoint();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                flushFailures.increment();
+                log.warn("Decision journal flush of {} records failed, retrying: {}", batch.size(), ex.getMessage());
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Isolates records Postgres will never accept (e.g. the user was deleted meanwhile) so they cannot
+     * block the journal: each goes in its own transaction and a rejected one is logged and dropped.
+     */
+    private void flushOneByOne(List<DecisionJournal.Entry> batch) {
+        for (DecisionJournal.Entry e : batch) {
+            try {
+                tx.executeWithoutResult(status -> flush(List.of(e)));
+            } catch (DataIntegrityViolationException ex) {
+                dropped.increment();
+                log.error("Dropping journaled decision {} rejected by Postgres: {}", e.decision().id(), ex.getMessage());
+            }
+        }
+    }
+
+    private void flush(List<DecisionJournal.Entry> batch) {
+        List<RiskDecisionEntity> rows = new ArrayList<>(batch.size());
+        for (DecisionJournal.Entry e : batch) {
+            rows.add(e.decision().toEntity());
+        }
+        Set<UUID> inserted = writer.insertNewDecisions(rows);
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<OutboxEventEntity> events = new ArrayList<>(inserted.size());
+        Map<String, JournaledDecision> toTrust = new LinkedHashMap<>();
+        for (DecisionJournal.Entry e : batch) {
+            JournaledDecision d = e.decision();
+            if (!inserted.contains(d.id())) {
+                continue;
+            }
+            events.add(DecisionBatchWriter.outboxRow(d.id(), MonitoringEvents.RISK_DECISION_MADE, d.payloadJson(), now));
+            // Re-insert so the user's latest country is trusted last.
+            String key = d.userId() + ":" + SignalHasher.toHex(d.deviceHash()) + ":" + d.country();
+            toTrust.remove(key);
+            toTrust.put(key, d);
+        }
+        for (JournaledDecision d : toTrust.values()) {
+            trust.trust(d.userId(), d.deviceHash(), d.country());
+        }
+        writer.insertOutbox(events);
+        outboxNotifier.notifyOnCommit();
+    }
+
+    /** Drains what is pending (bounded wait), then closes the journal; anything left is replayed on restart. */
+    @PreDestroy
+    void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.journal;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.RiskDecisionEntity;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One APPROVED decision as stored in the journal, including its ready-made {@code RISK_DECISION_MADE}
+ * payload (so the event carries the decision time, not the flush time).
+ */
+record JournaledDecision(
+        UUID id,
+        UUID userId,
+        String actionType,
+        BigDecimal amount,
+        byte[] deviceHash,
+        String country,
+        int riskScore,
+        String riskLevel,
+        Instant createdAt,
+        String payloadJson
+) {
+
+    static JournaledDecision of(RiskDecisionEntity d, String payloadJson) {
+        return new JournaledDecision(d.getId(), d.getUserId(), d.getActionType(), d.getAmount(), d.getDeviceHash(),
+                d.getCountry(), d.getRiskScore(), d.getRiskLevel(), d.getCreatedAt(), payloadJson);
+    }
+
+    RiskDecisionEntity toEntity() {
+        RiskDecisionEntity d = new RiskDecisionEntity();
+        d.setId(id);
+        d.setUserId(userId);
+        d.setActionType(actionType);
+        d.setAmount(amount);
+        d.setDeviceHash(deviceHash);
+        d.setCountry(country);
+        d.setRiskScore(riskScore);
+        d.setRiskLevel(riskLevel);
+        d.setDecision("APPROVED");
+        d.setStepUpRequired(false);
+        d.setCreatedAt(createdAt);
+        return d;
+    }
+
+    /** Fixed-order binary encoding; strings are UTF-8 with an int length prefix. */
+    byte[] encode() {
+        byte[] action = actionType.getBytes(StandardCharsets.UTF_8);
+        byte[] amt = amount.toPlainString().getBytes(StandardCharsets.US_ASCII);
+        byte[] ctry = country.getBytes(StandardCharsets.UTF_8);
+        byte[] level = riskLevel.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = payloadJson.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer b = ByteBuffer.allocate(16 + 16 + 4 + 8 + 4
+                + 4 * 6 + action.length + amt.length + deviceHash.length + ctry.length + level.length + payload.length);
+        b.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        b.putLong(userId.getMostSignificantBits()).putLong(userId.getLeastSignificantBits());
+        b.putInt(riskScore);
+        b.putLong(createdAt.getEpochSecond()).putInt(createdAt.getNano());
+        put(b, action);
+        put(b, amt);
+        put(b, deviceHash);
+        put(b, ctry);
+        put(b, level);
+        put(b, payload);
+        return b.array();
+    }
+
+    static JournaledDecision decode(ByteBuffer b) {
+        UUID id = new UUID(b.getLong(), b.getLong());
+        UUID userId = new UUID(b.getLong(), b.getLong());
+        int score = b.getInt();
+        Instant createdAt = Instant.ofEpochSecond(b.getLong(), b.getInt());
+        String action = string(b);
+        BigDecimal amount = new BigDecimal(string(b));
+        byte[] deviceHash = bytes(b);
+        String country = string(b);
+        String level = string(b);
+        String payload = string(b);
+        return new JournaledDecision(id, userId, action, amount, deviceHash, country, score, level, createdAt, payload);
+    }
+
+    private static void put(ByteBuffer b, byte[] v) {
+        b.putInt(v.length).put(v);
+    }
+
+    private static byte[] bytes(ByteBuffer b) {
+        byte[] v = new byte[b.getInt()];
+        b.get(v);
+        return v;
+    }
+
+    private static String string(ByteBuffer b) {
+        return new String(bytes(b), StandardCharsets.UTF_8);
+    }
+}
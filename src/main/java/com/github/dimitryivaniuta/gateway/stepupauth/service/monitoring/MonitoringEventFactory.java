@@ -1,6 +1,7 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskAssessment;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -23,6 +24,25 @@ public class MonitoringEventFactory {
         return m;
     }
 
+    /** @return {@code RISK_DECISION_MADE} payload JSON */
+    public String riskDecisionMade(UUID userId, UUID decisionId, RiskAssessment assessment, String decision) {
+        var e = base(MonitoringEvents.RISK_DECISION_MADE, userId, decisionId);
+        e.put("riskScore", assessment.score());
+        e.put("riskLevel", assessment.level().name());
+        e.put("reasons", assessment.reasons());
+        e.put("decision", decision);
+        return toJson(e);
+    }
+
+    /** @return {@code STEP_UP_REQUIRED} payload JSON */
+    public String stepUpRequired(UUID userId, UUID decisionId, UUID challengeId, RiskAssessment assessment) {
+        var e = base(MonitoringEvents.STEP_UP_REQUIRED, userId, decisionId);
+        e.put("challengeId", challengeId.toString());
+        e.put("riskScore", assessment.score());
+        e.put("reasons", assessment.reasons());
+        return toJson(e);
+    }
+
     public String toJson(Map<String,Object> map) {
         try { return mapper.writeValueAsString(map); }
         catch (Exception e) { throw new IllegalStateException("Serialize failed", e); }
@@ -0,0 +1,82 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.monitoring;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.MonitoringEventDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Monitoring events read straight from {@code outbox_event}, newest first.
+ *
+ * <p>The SQL is assembled per call so that only the filters actually given end up in the {@code where}
+ * clause; {@code :x is null or ...} predicates would keep Postgres from using the indexes in generic
+ * plans. The event-type list is a literal (not a bind parameter) and must stay identical to the
+ * predicate of the partial index {@code idx_outbox_monitoring_user_created} (V11), otherwise the planner
+ * cannot prove the index applies.</p>
+ */
+@Component
+public class MonitoringEventQuery {
+
+    static final String MONITORING_TYPES = "event_type in ('"
+            + MonitoringEvents.RISK_DECISION_MADE + "', '"
+            + MonitoringEvents.STEP_UP_REQUIRED + "', '"
+            + MonitoringEvents.STEP_UP_VERIFIED + "')";
+
+    private static final String SELECT = """
+            select id, event_type, created_at, payload_json::text as payload_json
+            from outbox_event
+            where\s""" + MONITORING_TYPES;
+
+    private static final String ORDER = " order by created_at desc, id desc limit ?";
+
+    private final JdbcTemplate jdbc;
+
+    public MonitoringEventQuery(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param userId filter on the payload's {@code userId}, or {@code null}
+     * @param from   inclusive lower bound on {@code created_at}, or {@code null}
+     * @param to     exclusive upper bound on {@code created_at}, or {@code null}
+     * @param afterCreatedAt keyset position: return rows strictly after ({@code afterCreatedAt}, {@code afterId}),
+     *                       or {@code null} for the first page
+     * @param limit  max rows
+     */
+    public List<MonitoringEventDto> find(UUID userId, Instant from, Instant to,
+                                         Instant afterCreatedAt, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>(6);
+        if (userId != null) {
+            sql.append(" and payload_json->>'userId' = ?");
+            args.add(userId.toString());
+        }
+        if (from != null) {
+            sql.append(" and created_at >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" and created_at < ?");
+            args.add(Timestamp.from(to));
+        }
+        if (afterCreatedAt != null) {
+            sql.append(" and (created_at, id) < (?, ?)");
+            args.add(Timestamp.from(afterCreatedAt));
+            args.add(afterId);
+        }
+        sql.append(ORDER);
+        args.add(limit);
+
+        return jdbc.query(sql.toString(), (rs, i) -> new MonitoringEventDto(
+                rs.getLong("id"),
+                rs.getString("event_type"),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getString("payload_json")
+        ), args.toArray());
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process backend for single-node deployments and tests without Redis ({@code app.otp.store=memory}).
+ *
+ * <p>Entries live in a {@link ConcurrentHashMap} (per-bin locking, i.e. lock-striped by key); verify
+ * runs inside {@code compute} so check/increment/compare/remove is atomic per challenge. Expiry is
+ * checked on every read, and a {@link TimingWheel} reclaims expired entries in bulk once per tick
+ * instead of scanning the map.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.otp", name = "store", havingValue = "memory")
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MILLIS = 1_000;
+
+    /** Mutable only inside the map's {@code compute} for its key. */
+    private static final class Entry {
+        final String code;
+        final long expiresAtMillis;
+        int attempts;
+
+        Entry(String code, long expiresAtMillis) {
+            this.code = code;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    // 64 slots per level: 64s, ~68min, ~73h
+    private final TimingWheel<UUID> wheel = new TimingWheel<>(TICK_MILLIS, 6, 3, System.currentTimeMillis());
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("otp-expiry").daemon().factory());
+
+    public InMemoryOtpStore() {
+        ticker.scheduleAtFixedRate(this::expire, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void store(UUID challengeId, String code, Duration ttl) {
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        entries.put(challengeId, new Entry(code, expiresAt));
+        wheel.schedule(challengeId, expiresAt);
+    }
+
+    @Override
+    public Result verify(UUID challengeId, String code, int maxAttempts) {
+        long now = System.currentTimeMillis();
+        Result[] result = {Result.GONE};
+        entries.computeIfPresent(challengeId, (id, e) -> {
+            if (e.expiresAtMillis <= now) {
+                return null;
+            }
+            e.attempts++;
+            if (e.attempts > maxAttempts) {
+                result[0] = Result.LOCKED;
+                return e;
+            }
+            if (!e.code.equals(code)) {
+                result[0] = Result.UNAUTHORIZED;
+                return e;
+            }
+            result[0] = Result.OK;
+            return null;
+        });
+        return result[0];
+    }
+
+    @Override
+    public String peek(UUID challengeId) {
+        Entry e = entries.get(challengeId);
+        return e == null || e.expiresAtMillis <= System.currentTimeMillis() ? null : e.code;
+    }
+
+    /** @return entries currently held (including expired ones not yet reclaimed) */
+    int size() {
+        return entries.size();
+    }
+
+    void expire() {
+        long now = System.currentTimeMillis();
+        for (UUID id : wheel.advance(now)) {
+            // The key may have been re-stored with a later deadline; only drop expired entries.
+            entries.computeIfPresent(id, (k, e) -> e.expiresAtMillis <= now ? null : e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+}
@@ -2,7 +2,6 @@ package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
 
 import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -10,37 +9,36 @@ import java.security.SecureRandom;
 import java.time.Duration;
 import java.util.UUID;
 
-/** OTP service (Redis TTL + attempt counter). */
+/**
+ * OTP service (TTL + attempt counter), backed by an {@link OtpStore}.
+ *
+ * <p>{@code app.otp.store}: {@code redis} (default, {@link RedisHashOtpStore}) or {@code memory}
+ * ({@link InMemoryOtpStore}, single node only).</p>
+ */
 @Service
 public class OtpService {
     private static final SecureRandom RNG = new SecureRandom();
-    private final StringRedisTemplate redis;
+
+    private final OtpStore store;
     @Value("${app.otp.ttl}") private Duration ttl;
     @Value("${app.otp.max-attempts}") private int maxAttempts;
 
-    public OtpService(StringRedisTemplate redis) { this.redis = redis; }
-
-    private String otpKey(UUID id) { return "otp:" + id; }
-    private String attemptsKey(UUID id) { return "otp_attempts:" + id; }
+    public OtpService(OtpStore store) { this.store = store; }
 
     public String generateAndStore(UUID challengeId) {
         String otp = String.format("%06d", RNG.nextInt(1_000_000));
-        redis.opsForValue().set(otpKey(challengeId), otp, ttl);
-        redis.opsForValue().set(attemptsKey(challengeId), "0", ttl);
+        store.store(challengeId, otp, ttl);
         return otp;
     }
 
     public void verify(UUID challengeId, String otp) {
-        String expected = redis.opsForValue().get(otpKey(challengeId));
-        if (expected == null) throw new ApiException(HttpStatus.GONE, "OTP expired");
-
-        Long attempts = redis.opsForValue().increment(attemptsKey(challengeId));
-        if (attempts != null && attempts > maxAttempts) throw new ApiException(HttpStatus.LOCKED, "Too many attempts");
-
-        if (!expected.equals(otp)) throw new ApiException(HttpStatus.UNAUTHORIZED, "Invalid OTP");
-        redis.delete(otpKey(challengeId));
-        redis.delete(attemptsKey(challengeId));
+        switch (store.verify(challengeId, otp, maxAttempts)) {
+            case OK -> { }
+            case GONE -> throw new ApiException(HttpStatus.GONE, "OTP expired");
+            case LOCKED -> throw new ApiException(HttpStatus.LOCKED, "Too many attempts");
+            case UNAUTHORIZED -> throw new ApiException(HttpStatus.UNAUTHORIZED, "Invalid OTP");
+        }
     }
 
-    public String peek(UUID challengeId) { return redis.opsForValue().get(otpKey(challengeId)); }
+    public String peek(UUID challengeId) { return store.peek(challengeId); }
 }
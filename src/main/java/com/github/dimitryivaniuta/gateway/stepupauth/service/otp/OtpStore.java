@@ -0,0 +1,31 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Storage of pending OTP codes and their attempt counters.
+ *
+ * <p>Implementations must make {@link #verify} atomic: at most one correct submission succeeds and no
+ * more than {@code maxAttempts} comparisons are ever made for a challenge.</p>
+ */
+public interface OtpStore {
+
+    /** Outcome of a verification attempt. */
+    enum Result { OK, GONE, LOCKED, UNAUTHORIZED }
+
+    /**
+     * Stores a fresh code with a zero attempt counter, replacing any previous one.
+     */
+    void store(UUID challengeId, String code, Duration ttl);
+
+    /**
+     * Counts an attempt and compares; the entry is removed on success.
+     */
+    Result verify(UUID challengeId, String code, int maxAttempts);
+
+    /**
+     * @return the pending code, or {@code null} when expired/consumed (dev preview and tests)
+     */
+    String peek(UUID challengeId);
+}
@@ -0,0 +1,75 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Redis backend: one hash per challenge ({@code otp:h:<id>} with fields {@code code}, {@code attempts}).
+ *
+ * <ul>
+ *   <li>store: HSET + PEXPIRE sent as one pipeline (one round trip, one key, one TTL)</li>
+ *   <li>verify: {@code redis/otp-verify.lua} (one round trip, atomic, single key so cluster-safe)</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.otp", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisHashOtpStore implements OtpStore {
+
+    private static final RedisScript<Long> VERIFY =
+            RedisScript.of(new ClassPathResource("redis/otp-verify.lua"), Long.class);
+
+    static final String CODE = "code";
+    static final String ATTEMPTS = "attempts";
+
+    private final StringRedisTemplate redis;
+
+    public RedisHashOtpStore(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    static String key(UUID challengeId) {
+        return "otp:h:" + challengeId;
+    }
+
+    @Override
+    public void store(UUID challengeId, String code, Duration ttl) {
+        String key = key(challengeId);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection c = (StringRedisConnection) connection;
+            c.hMSet(key, Map.of(CODE, code, ATTEMPTS, "0"));
+            c.pExpire(key, ttl.toMillis());
+            return null;
+        });
+    }
+
+    @Override
+    public Result verify(UUID challengeId, String code, int maxAttempts) {
+        Long status = redis.execute(VERIFY, List.of(key(challengeId)),
+                code == null ? "" : code, Integer.toString(maxAttempts));
+        if (status == null) {
+            return Result.GONE;
+        }
+        return switch (status.intValue()) {
+            case 0 -> Result.OK;
+            case -2 -> Result.LOCKED;
+            case -3 -> Result.UNAUTHORIZED;
+            default -> Result.GONE;
+        };
+    }
+
+    @Override
+    public String peek(UUID challengeId) {
+        Object code = redis.opsForHash().get(key(challengeId), CODE);
+        return code == null ? null : code.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel for bulk expiry: O(1) schedule, O(expired) advance.
+ *
+ * <p>Level {@code L} has {@code 2^bits} slots of {@code tick * 2^(bits*L)} each. A timer is placed at
+ * the lowest level whose span covers its delay and cascades one level down each time the level above
+ * turns over, until it fires from level 0. Deadlines beyond the top level are parked in its farthest
+ * slot and re-placed when that slot is cascaded. Firing is at tick granularity and never early.</p>
+ *
+ * <p>Guarded by a {@link ReentrantLock} (no I/O inside; virtual-thread friendly).</p>
+ *
+ * @param <K> timer key
+ */
+final class TimingWheel<K> {
+
+    private record Timer<K>(K key, long deadlineTick) { }
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final ArrayDeque<Timer<K>>[][] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int bits, int levels, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.originMillis = nowMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.levels = levels;
+        this.slots = new ArrayDeque[levels][1 << bits];
+        for (int l = 0; l < levels; l++) {
+            for (int s = 0; s <= mask; s++) {
+                slots[l][s] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules {@code key} to fire at or after {@code deadlineMillis}.
+     */
+    void schedule(K key, long deadlineMillis) {
+        long deadlineTick = Math.max(0, Math.ceilDiv(deadlineMillis - originMillis, tickMillis));
+        lock.lock();
+        try {
+            // The current tick has been drained already: anything due fires on the next one.
+            place(new Timer<>(key, deadlineTick), currentTick + 1);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns the keys whose deadline has passed.
+     */
+    List<K> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        List<K> fired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                ArrayDeque<Timer<K>> due = slots[0][(int) (currentTick & mask)];
+                for (int n = due.size(); n > 0; n--) {
+                    Timer<K> t = due.poll();
+                    if (t.deadlineTick() <= currentTick) {
+                        fired.add(t.key());
+                        size--;
+                    } else {
+                        place(t, currentTick + 1);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return fired;
+    }
+
+    /** @return number of pending timers */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cascade() {
+        for (int l = 1; l < levels; l++) {
+            if ((currentTick & ((1L << (bits * l)) - 1)) != 0) {
+                return;
+            }
+            ArrayDeque<Timer<K>> slot = slots[l][(int) ((currentTick >>> (bits * l)) & mask)];
+            for (int n = slot.size(); n > 0; n--) {
+                // Cascading runs before level 0 of this tick is drained, so a timer due now still fires now.
+                place(slot.poll(), currentTick);
+            }
+        }
+    }
+
+    /**
+     * @param dueTick tick whose level-0 slot takes a timer that is already due
+     */
+    private void place(Timer<K> t, long dueTick) {
+        long delay = t.deadlineTick() - currentTick;
+        if (delay <= 0) {
+            slots[0][(int) (dueTick & mask)].add(t);
+            return;
+        }
+        for (int l = 0; l < levels; l++) {
+            if (delay < (1L << (bits * (l + 1)))) {
+                slots[l][(int) ((t.deadlineTick() >>> (bits * l)) & mask)].add(t);
+                return;
+            }
+        }
+        // Beyond the top level: park in the farthest top-level slot; re-placed when it cascades.
+        int top = levels - 1;
+        slots[top][(int) (((currentTick >>> (bits * top)) - 1) & mask)].add(t);
+    }
+}
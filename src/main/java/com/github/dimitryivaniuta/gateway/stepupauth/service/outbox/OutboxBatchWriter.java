@@ -0,0 +1,70 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Set-based status updates for a publisher batch (one statement per outcome, not per row).
+ *
+ * <p>Runs on the publisher's transaction, so the rows are still locked by {@code findDueShardBatch}.</p>
+ */
+@Component
+public class OutboxBatchWriter {
+
+    private static final String MARK_PUBLISHED = """
+            update outbox_event
+               set status = 'PUBLISHED', published_at = ?, last_error = null
+             where id = any(?)
+            """;
+
+    /**
+     * Backoff mirrors the previous per-row rule: min(300s, 2^min(8, attempts)). The timestamp is cast
+     * explicitly: pgjdbc sends it untyped, and {@code ? + interval} would otherwise resolve as an interval.
+     */
+    private static final String MARK_FAILED = """
+            update outbox_event
+               set status = 'FAILED',
+                   attempts = attempts + 1,
+                   next_attempt_at = cast(? as timestamptz) + make_interval(secs => least(300, power(2, least(8, attempts + 1)))),
+                   last_error = ?
+             where id = any(?)
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public OutboxBatchWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public int markPublished(Collection<Long> ids, Instant now) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbc.update(con -> {
+            var ps = con.prepareStatement(MARK_PUBLISHED);
+            ps.setTimestamp(1, Timestamp.from(now));
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Marks rows failed with one shared error message (callers group failures by message).
+     */
+    public int markFailed(Collection<Long> ids, String error, Instant now) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbc.update(con -> {
+            var ps = con.prepareStatement(MARK_FAILED);
+            ps.setTimestamp(1, Timestamp.from(now));
+            ps.setString(2, error);
+            ps.setArray(3, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-shard outbox metrics.
+ *
+ * <ul>
+ *   <li>{@code outbox.events{shard,result=published|failed}}: publish outcomes (throughput)</li>
+ *   <li>{@code outbox.backlog{shard}}: pending NEW/FAILED events, sampled with one grouped count</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OutboxMetrics {
+
+    private final OutboxEventRepository repo;
+    private final int shards;
+    private final Counter[] published;
+    private final Counter[] failed;
+    private final AtomicLongArray backlog;
+
+    public OutboxMetrics(OutboxEventRepository repo, OutboxProperties props, MeterRegistry registry) {
+        this.repo = repo;
+        this.shards = props.shards();
+        this.published = new Counter[shards];
+        this.failed = new Counter[shards];
+        this.backlog = new AtomicLongArray(shards);
+        for (int s = 0; s < shards; s++) {
+            String tag = Integer.toString(s);
+            published[s] = Counter.builder("outbox.events").tag("shard", tag).tag("result", "published").register(registry);
+            failed[s] = Counter.builder("outbox.events").tag("shard", tag).tag("result", "failed").register(registry);
+            final int shard = s;
+            Gauge.builder("outbox.backlog", backlog, b -> b.get(shard)).tag("shard", tag).register(registry);
+        }
+    }
+
+    void recordBatch(int shard, int publishedCount, int failedCount) {
+        published[shard].increment(publishedCount);
+        failed[shard].increment(failedCount);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.backlog-sample-interval:15s}")
+    public void sampleBacklog() {
+        long[] counts = new long[shards];
+        try {
+            for (Object[] row : repo.countPendingByShard(shards)) {
+                counts[((Number) row[0]).intValue()] = ((Number) row[1]).longValue();
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Outbox backlog sampling failed", ex);
+            return;
+        }
+        for (int s = 0; s < shards; s++) {
+            backlog.set(s, counts[s]);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Issues {@code NOTIFY <channel>} for new outbox rows.
+ *
+ * <p>Postgres delivers a notification only when the surrounding transaction commits (and drops it on
+ * rollback), so publishers never wake up for rows they cannot see yet. The statement is sent once per
+ * transaction no matter how many events it enqueues.</p>
+ */
+@Component
+public class OutboxNotifier {
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+    private final String notifySql;
+
+    public OutboxNotifier(JdbcTemplate jdbc, OutboxProperties props) {
+        this.jdbc = jdbc;
+        this.enabled = props.wakeup().enabled();
+        this.notifySql = "notify " + props.wakeup().channel();
+    }
+
+    public void notifyOnCommit() {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (TransactionSynchronizationManager.hasResource(this)) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxNotifier.this);
+                }
+            });
+        }
+        jdbc.execute(notifySql);
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the daily {@code outbox_event} partitions (see {@code V8__partition_outbox_event.sql}).
+ *
+ * <ul>
+ *   <li>Creates partitions {@code premakeDays} ahead so inserts never fall into the default partition.</li>
+ *   <li>Detaches and drops partitions that ended more than {@code retention} ago and hold no NEW/FAILED
+ *       rows. Whole-partition drops avoid DELETE bloat and vacuum load.</li>
+ * </ul>
+ *
+ * <p>The detach is a plain {@code DETACH PARTITION}: Postgres refuses {@code CONCURRENTLY} while the
+ * table has a default partition, and the default partition stays as the safety net for rows outside
+ * every daily range. The plain form briefly takes an exclusive lock on {@code outbox_event}; it waits at
+ * most {@code lock_timeout} (5s) for it, and a partition that could not be detached is retried on the next
+ * run.</p>
+ *
+ * <p>Runs on one autocommit connection guarded by a session advisory lock, so only one node does it at a
+ * time.</p>
+ */
+@Slf4j
+@Component
+public class OutboxPartitionMaintenance {
+
+    private static final long LOCK_KEY = 0x0B0C_0001L;
+    private static final String PREFIX = "outbox_event_p";
+    private static final String HISTORY = "outbox_event_history";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbc;
+    private final OutboxProperties props;
+
+    public OutboxPartitionMaintenance(JdbcTemplate jdbc, OutboxProperties props) {
+        this.jdbc = jdbc;
+        this.props = props;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.outbox.partitions.maintenance-cron:0 15 * * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            jdbc.execute((ConnectionCallback<Void>) con -> {
+                boolean autoCommit = con.getAutoCommit();
+                con.setAutoCommit(true);
+                try (Statement st = con.createStatement()) {
+                    if (!tryLock(st)) {
+                        return null;
+                    }
+                    try {
+                        st.execute("set lock_timeout = '5s'");
+                        createAhead(st);
+                        dropExpired(st);
+                    } finally {
+                        st.execute("reset lock_timeout");
+                        st.execute("select pg_advisory_unlock(" + LOCK_KEY + ")");
+                    }
+                } finally {
+                    con.setAutoCommit(autoCommit);
+                }
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Outbox partition maintenance failed: {}", ex.getMessage());
+        }
+    }
+
+    private static boolean tryLock(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("select pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private void createAhead(Statement st) throws SQLException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= props.partitions().premakeDays(); i++) {
+            LocalDate day = today.plusDays(i);
+            String sql = "create table if not exists " + PREFIX + DAY.format(day)
+                    + " partition of outbox_event for values from ('" + startOf(day) + "') to ('" + startOf(day.plusDays(1)) + "')";
+            try {
+                st.execute(sql);
+            } catch (SQLException ex) {
+                // e.g. the default partition already holds rows of that day
+                log.warn("Could not create outbox partition for {}: {}", day, ex.getMessage());
+            }
+        }
+    }
+
+    private void dropExpired(Statement st) throws SQLException {
+        Instant cutoff = Instant.now().minus(props.partitions().retention());
+        for (String partition : expiredPartitions(st, cutoff)) {
+            if (partition.equals(HISTORY) && hasRowsSince(st, partition, cutoff)) {
+                continue;
+            }
+            if (hasPending(st, partition)) {
+                log.info("Outbox partition {} is past retention but still has pending events; keeping it", partition);
+                continue;
+            }
+            try {
+                st.execute("alter table outbox_event detach partition " + partition);
+            } catch (SQLException ex) {
+                // e.g. lock_timeout behind a long-running transaction on outbox_event
+                log.warn("Could not detach outbox partition {}, retrying next run: {}", partition, ex.getMessage());
+                continue;
+            }
+            st.execute("drop table " + partition);
+            log.info("Dropped outbox partition {}", partition);
+        }
+    }
+
+    /**
+     * Attached daily partitions whose whole range ends before {@code cutoff}, plus the history partition
+     * (checked for recent rows by the caller).
+     */
+    private static List<String> expiredPartitions(Statement st, Instant cutoff) throws SQLException {
+        List<String> expired = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery("""
+                select c.relname
+                from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = 'outbox_event'::regclass
+                """)) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (name.equals(HISTORY)) {
+                    expired.add(name);
+                } else if (name.startsWith(PREFIX)) {
+                    LocalDate day = LocalDate.parse(name.substring(PREFIX.length()), DAY);
+                    if (!startOf(day.plusDays(1)).isAfter(cutoff)) {
+                        expired.add(name);
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    private static boolean hasPending(Statement st, String partition) throws SQLException {
+        try (ResultSet rs = st.executeQuery(
+                "select exists (select 1 from " + partition + " where status <> 'PUBLISHED')")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private static boolean hasRowsSince(Statement st, String partition, Instant cutoff) throws SQLException {
+        try (ResultSet rs = st.executeQuery(
+                "select exists (select 1 from " + partition + " where created_at >= '" + cutoff + "')")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -1,62 +1,156 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
 
-import com.github.dimitryivaniuta.gateway.stepupauth.config.props.AppKafkaProperties;
 import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Publishes outbox events to Kafka with retry/backoff.
+ *
+ * <p>Events are split into {@code app.outbox.shards} hash shards of {@code aggregate_id}. Each run
+ * fans the shards out to a pool of {@code app.outbox.workers} threads; a worker drains its shard
+ * back-to-back while batches come back full. Shards leased by another node are skipped, so shards
+ * spread across nodes on their own as nodes come and go. The workers are virtual threads when
+ * {@code spring.threads.virtual.enabled} is on, platform threads otherwise.</p>
+ *
+ * <p>Runs are triggered by {@link OutboxWakeupListener} (Postgres NOTIFY on commit). Without
+ * notifications the scheduled check only touches the database when a failed event's retry is due or
+ * {@code app.outbox.publish-interval} (safety net) has passed since the last run. Concurrent triggers
+ * are coalesced: a wake-up during a run causes exactly one more run.</p>
+ *
+ * <p>A run that fetches nothing although an event looked due (its shard is leased by another node, or
+ * the lookup failed) does not re-arm the check right away: the next check waits at least
+ * {@link #IDLE_BACKOFF}, the shortest retry backoff.</p>
  */
 @Slf4j
 @Component
 public class OutboxPublisher {
+
+    /** Shortest retry backoff of a failed event (see {@code OutboxBatchWriter}). */
+    static final Duration IDLE_BACKOFF = Duration.ofSeconds(2);
+
+    private final OutboxShardPublisher shardPublisher;
     private final OutboxEventRepository repo;
-    private final KafkaTemplate<String, String> kafka;
     private final OutboxProperties outboxProps;
-    private final AppKafkaProperties kafkaProps;
+    private final ExecutorService workers;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+    private volatile Instant lastRunAt = Instant.EPOCH;
+    private volatile Instant nextRetryAt = Instant.EPOCH;
 
-    public OutboxPublisher(
-            OutboxEventRepository repo, KafkaTemplate<String, String> kafka,
-            OutboxProperties outboxProps, AppKafkaProperties kafkaProps
-    ) {
+    public OutboxPublisher(OutboxShardPublisher shardPublisher, OutboxEventRepository repo, OutboxProperties outboxProps,
+                           Environment env) {
+        this.shardPublisher = shardPublisher;
         this.repo = repo;
-        this.kafka = kafka;
         this.outboxProps = outboxProps;
-        this.kafkaProps = kafkaProps;
+        // Still a fixed pool in virtual mode: app.outbox.workers bounds the connections held by shard drains.
+        ThreadFactory threads = Threading.VIRTUAL.isActive(env)
+                ? Thread.ofVirtual().name("outbox-worker-", 0).factory()
+                : Thread.ofPlatform().name("outbox-worker-", 0).daemon().factory();
+        this.workers = Executors.newFixedThreadPool(outboxProps.workers(), threads);
     }
 
-    @Scheduled(fixedDelayString = "${app.outbox.publish-interval:5s}")
-    @Transactional
+    /**
+     * Publishes everything that is due now (coalesced with any run already in progress).
+     */
     public void publishDueEvents() {
         if (!outboxProps.enabled()) {
             return;
         }
-        var batch = repo.findDueBatch(Instant.now(), List.of("NEW", "FAILED"), outboxProps.batchSize());
-        for (var e : batch) {
+        rerun.set(true);
+        while (rerun.get() && running.compareAndSet(false, true)) {
+            try {
+                rerun.set(false);
+                publishAllShards();
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * Called by the NOTIFY listener when outbox rows were committed.
+     */
+    public void wake() {
+        publishDueEvents();
+    }
+
+    /**
+     * Cheap scheduled check (no DB access unless a run is due): retry backoff elapsed or safety-net poll.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.retry-check-interval:500ms}")
+    public void pollIfDue() {
+        Instant now = Instant.now();
+        if (!now.isBefore(nextRetryAt) || !now.isBefore(lastRunAt.plus(outboxProps.publishInterval()))) {
+            publishDueEvents();
+        }
+    }
+
+    private void publishAllShards() {
+        List<Future<Integer>> shards = new ArrayList<>(outboxProps.shards());
+        for (int shard = 0; shard < outboxProps.shards(); shard++) {
+            final int s = shard;
+            shards.add(workers.submit(() -> drain(s)));
+        }
+        int fetched = 0;
+        for (Future<Integer> f : shards) {
             try {
-                kafka.send(kafkaProps.topics().monitoring(), e.getAggregateId().toString(), e.getPayloadJson()).get();
-                e.setStatus("PUBLISHED");
-                e.setPublishedAt(Instant.now());
-                e.setLastError(null);
-                repo.save(e);
+                fetched += f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
             } catch (Exception ex) {
-                int attempts = e.getAttempts() + 1;
-                e.setAttempts(attempts);
-                e.setStatus("FAILED");
-                long backoffSeconds = Math.min(300, (long) Math.pow(2, Math.min(8, attempts)));
-                e.setNextAttemptAt(Instant.now().plusSeconds(backoffSeconds));
-                e.setLastError(ex.getMessage());
-                repo.save(e);
-                log.warn("Outbox publish failed id={}, attempts={}, retryIn={}s", e.getId(), attempts, backoffSeconds, ex);
+                log.warn("Outbox shard worker failed", ex);
             }
         }
+        Instant now = Instant.now();
+        lastRunAt = now;
+        Instant next = nextRetry();
+        if (fetched == 0 && next.isBefore(now.plus(IDLE_BACKOFF))) {
+            next = now.plus(IDLE_BACKOFF);
+        }
+        nextRetryAt = next;
+    }
+
+    private Instant nextRetry() {
+        try {
+            Long millis = repo.findNextDueEpochMillis();
+            return millis == null ? Instant.MAX : Instant.ofEpochMilli(millis);
+        } catch (RuntimeException ex) {
+            log.debug("Outbox next-due lookup failed", ex);
+            return Instant.EPOCH;
+        }
+    }
+
+    /** @return events fetched from the shard (0 when another node holds it) */
+    private int drain(int shard) {
+        int total = 0;
+        int fetched;
+        do {
+            fetched = shardPublisher.publishShard(shard);
+            total += Math.max(fetched, 0);
+        } while (fetched == outboxProps.batchSize());
+        return total;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
     }
 }
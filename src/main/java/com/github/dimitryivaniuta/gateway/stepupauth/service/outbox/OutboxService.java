@@ -12,7 +12,11 @@ import java.util.UUID;
 @Service
 public class OutboxService {
     private final OutboxEventRepository repo;
-    public OutboxService(OutboxEventRepository repo) { this.repo = repo; }
+    private final OutboxNotifier notifier;
+    public OutboxService(OutboxEventRepository repo, OutboxNotifier notifier) {
+        this.repo = repo;
+        this.notifier = notifier;
+    }
 
     @Transactional
     public void enqueue(UUID aggregateId, String eventType, String payloadJson) {
@@ -25,5 +29,6 @@ public class OutboxService {
         e.setNextAttemptAt(Instant.now());
         e.setCreatedAt(Instant.now());
         repo.save(e);
+        notifier.notifyOnCommit();
     }
 }
@@ -0,0 +1,186 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.AppKafkaProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.repo.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes one batch of one {@code aggregate_id} hash shard in its own transaction.
+ *
+ * <p>The shard is leased with {@code pg_try_advisory_xact_lock}, so across all nodes only one worker
+ * publishes a shard at a time and the lease is released on commit/rollback (or when a node dies).
+ * Together with the insertion-ordered query this keeps events of one aggregate in order.</p>
+ *
+ * <p>The records of a batch are handed to the producer before any acknowledgement is awaited, one
+ * event per aggregate at a time: the {@code k}-th event of an aggregate is sent in round {@code k},
+ * after its predecessor was acknowledged. A batch with one event per aggregate costs roughly one broker
+ * round trip. Once an event fails, the later events of its aggregate in the batch are neither sent nor
+ * touched; they stay pending behind the failed one and go out after its retry. Outcomes are then
+ * written with one UPDATE for the successes and one per distinct error for the failures. Delivery
+ * stays at-least-once: a record that times out here is retried later even if the broker eventually
+ * accepted it.</p>
+ */
+@Slf4j
+@Component
+public class OutboxShardPublisher {
+
+    /** Advisory lock namespace (first key) for outbox shard leases. */
+    static final int SHARD_LOCK_NAMESPACE = 0x0B0C;
+
+    /** Returned by {@link #publishShard(int)} when another worker holds the shard. */
+    public static final int SHARD_BUSY = -1;
+
+    private final OutboxEventRepository repo;
+    private final OutboxBatchWriter writer;
+    private final KafkaTemplate<String, String> kafka;
+    private final OutboxProperties outboxProps;
+    private final AppKafkaProperties kafkaProps;
+    private final OutboxMetrics metrics;
+
+    public OutboxShardPublisher(
+            OutboxEventRepository repo, OutboxBatchWriter writer, KafkaTemplate<String, String> kafka,
+            OutboxProperties outboxProps, AppKafkaProperties kafkaProps, OutboxMetrics metrics
+    ) {
+        this.repo = repo;
+        this.writer = writer;
+        this.kafka = kafka;
+        this.outboxProps = outboxProps;
+        this.kafkaProps = kafkaProps;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return number of events fetched for the shard, or {@link #SHARD_BUSY}
+     */
+    @Transactional
+    public int publishShard(int shard) {
+        if (!repo.tryShardLock(SHARD_LOCK_NAMESPACE, shard)) {
+            return SHARD_BUSY;
+        }
+        var batch = repo.findDueShardBatch(Instant.now(), outboxProps.shards(), shard, outboxProps.batchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        String topic = kafkaProps.topics().monitoring();
+        long deadline = System.nanoTime() + outboxProps.sendTimeout().toNanos();
+        List<Long> published = new ArrayList<>(batch.size());
+        Map<String, List<Long>> failedByError = new LinkedHashMap<>();
+        Set<UUID> failedAggregates = new HashSet<>();
+        int failed = 0;
+        for (List<OutboxEventEntity> round : rounds(batch)) {
+            if (System.nanoTime() - deadline >= 0) {
+                break; // the rest stays pending for the next batch
+            }
+            List<OutboxEventEntity> sending = new ArrayList<>(round.size());
+            for (var e : round) {
+                if (!failedAggregates.contains(e.getAggregateId())) {
+                    sending.add(e);
+                }
+            }
+            List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(sending.size());
+            for (var e : sending) {
+                sends.add(send(topic, e));
+            }
+            awaitAll(sends, deadline);
+
+            for (int i = 0; i < sending.size(); i++) {
+                var e = sending.get(i);
+                String error = failure(sends.get(i));
+                if (error == null) {
+                    published.add(e.getId());
+                } else {
+                    failedByError.computeIfAbsent(error, k -> new ArrayList<>()).add(e.getId());
+                    failedAggregates.add(e.getAggregateId());
+                    failed++;
+                }
+            }
+        }
+
+        Instant now = Instant.now();
+        writer.markPublished(published, now);
+        failedByError.forEach((error, ids) -> {
+            writer.markFailed(ids, error, now);
+            log.warn("Outbox publish failed shard={} for {} event(s) ids={}: {}", shard, ids.size(), ids, error);
+        });
+        metrics.recordBatch(shard, published.size(), failed);
+        return batch.size();
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(String topic, OutboxEventEntity e) {
+        try {
+            return kafka.send(topic, e.getAggregateId().toString(), e.getPayloadJson());
+        } catch (RuntimeException ex) {
+            // e.g. metadata unavailable within max.block.ms
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Splits an insertion-ordered batch into rounds: round {@code k} holds the {@code k}-th event of each
+     * aggregate, so a round never carries two events of the same aggregate.
+     */
+    private static List<List<OutboxEventEntity>> rounds(List<OutboxEventEntity> batch) {
+        List<List<OutboxEventEntity>> rounds = new ArrayList<>();
+        Map<UUID, Integer> seen = new HashMap<>();
+        for (var e : batch) {
+            int k = seen.merge(e.getAggregateId(), 1, Integer::sum) - 1;
+            if (k == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(k).add(e);
+        }
+        return rounds;
+    }
+
+    private void awaitAll(List<CompletableFuture<SendResult<String, String>>> sends, long deadline) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // per-record outcome is inspected by the caller
+        }
+    }
+
+    /**
+     * @return {@code null} when the record was acknowledged, otherwise the error to store
+     */
+    private String failure(CompletableFuture<SendResult<String, String>> send) {
+        if (!send.isDone()) {
+            return "Kafka send not acknowledged within " + outboxProps.sendTimeout();
+        }
+        if (!send.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            send.join();
+            return null;
+        } catch (RuntimeException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            return Objects.requireNonNullElse(cause.getMessage(), cause.getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Blocks on {@code LISTEN <channel>} and wakes the {@link OutboxPublisher} as soon as an outbox
+ * transaction commits.
+ *
+ * <p>Uses its own JDBC connection (outside the Hikari pool) because a listening session is held for
+ * the lifetime of the application. On connection loss it reconnects with backoff and triggers one
+ * publish run, since notifications sent meanwhile are lost; the publisher's poll covers the gap.</p>
+ */
+@Slf4j
+@Component
+public class OutboxWakeupListener implements SmartLifecycle {
+
+    private static final int WAIT_MILLIS = 10_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final DataSourceProperties dataSource;
+    private final OutboxProperties props;
+    private final OutboxPublisher publisher;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public OutboxWakeupListener(DataSourceProperties dataSource, OutboxProperties props, OutboxPublisher publisher) {
+        this.dataSource = dataSource;
+        this.props = props;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void start() {
+        if (!props.enabled() || !props.wakeup().enabled()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("outbox-listener").daemon().start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        long backoff = 1_000;
+        while (running) {
+            try (Connection con = DriverManager.getConnection(
+                    dataSource.determineUrl(), dataSource.determineUsername(), dataSource.determinePassword())) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("listen " + props.wakeup().channel());
+                }
+                log.info("Outbox listener subscribed to channel '{}'", props.wakeup().channel());
+                backoff = 1_000;
+                publisher.wake();
+
+                PGConnection pg = con.unwrap(PGConnection.class);
+                while (running) {
+                    var notifications = pg.getNotifications(WAIT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        publisher.wake();
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox listener connection failed, reconnecting in {} ms: {}", backoff, ex.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+}
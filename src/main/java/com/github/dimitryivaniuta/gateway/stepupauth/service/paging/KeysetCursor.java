@@ -0,0 +1,66 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.paging;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a list ordered by {@code (created_at, id)} descending: the last row of the previous page.
+ *
+ * <p>Clients get it as an opaque URL-safe string; its layout ({@code v1|seconds|nanos|id}) is not part of
+ * the API.</p>
+ */
+public record KeysetCursor(Instant createdAt, String id) {
+
+    private static final String VERSION = "v1";
+
+    /** @return opaque cursor pointing just past the row ({@code createdAt}, {@code id}) */
+    public static String encode(Instant createdAt, Object id) {
+        String raw = VERSION + "|" + createdAt.getEpochSecond() + "|" + createdAt.getNano() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for the first page
+     * @throws ApiException 400 when the cursor was not produced by {@link #encode}
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] p = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (p.length != 4 || !VERSION.equals(p[0])) {
+                throw invalid();
+            }
+            return new KeysetCursor(Instant.ofEpochSecond(Long.parseLong(p[1]), Long.parseLong(p[2])), p[3]);
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw invalid();
+        }
+    }
+
+    public UUID uuid() {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+    }
+
+    public long longId() {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException ex) {
+            throw invalid();
+        }
+    }
+
+    private static ApiException invalid() {
+        return new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link RiskRuleSet} compiled into flat decision tables.
+ *
+ * <p>One table is built per (action type, country) scope mentioned by any rule, plus wildcard scopes.
+ * A table holds a precomputed {@link RiskAssessment} for every (amount tier, signal mask) cell, where the
+ * amount tiers are the distinct {@code amountAtLeast} thresholds of the rules in that scope. Scoring is
+ * therefore two hash lookups, a binary search over a handful of thresholds and an array read; it does
+ * not depend on the number of rules and allocates nothing.</p>
+ *
+ * <p>Immutable; {@link RiskEngine} swaps whole instances atomically.</p>
+ */
+final class CompiledRules {
+
+    static final String ANY = "*";
+
+    /** Cells of one scope: {@code cells[tier * masks + signalMask]}. */
+    private record Table(BigDecimal[] tiers, RiskAssessment[] cells) { }
+
+    private final String version;
+    private final int ruleCount;
+    private final int tableCount;
+    /** actionType (or ANY) -> country (or ANY) -> table; every action map contains every country. */
+    private final Map<String, Map<String, Table>> tables;
+    private final Map<String, Table> anyAction;
+
+    private CompiledRules(String version, int ruleCount, Map<String, Map<String, Table>> tables) {
+        this.version = version;
+        this.ruleCount = ruleCount;
+        this.tables = tables;
+        this.anyAction = tables.get(ANY);
+        this.tableCount = tables.values().stream().mapToInt(Map::size).sum();
+    }
+
+    String version() {
+        return version;
+    }
+
+    int ruleCount() {
+        return ruleCount;
+    }
+
+    int tableCount() {
+        return tableCount;
+    }
+
+    RiskAssessment score(String actionType, String country, long signals, BigDecimal amount) {
+        Map<String, Table> byCountry = actionType == null ? anyAction : tables.getOrDefault(actionType, anyAction);
+        Table t = country == null ? null : byCountry.get(country);
+        if (t == null) {
+            t = byCountry.get(ANY);
+        }
+        return t.cells()[tier(t.tiers(), amount) * RiskSignal.maskCount() + (int) signals];
+    }
+
+    private static int tier(BigDecimal[] tiers, BigDecimal amount) {
+        if (amount == null || tiers.length == 0) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(tiers, amount);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    /**
+     * Validates and compiles a rule set.
+     *
+     * @throws IllegalArgumentException when the rule set is invalid
+     */
+    static CompiledRules compile(RiskRuleSet set) {
+        if (set == null || set.rules() == null) {
+            throw new IllegalArgumentException("Rule set must define 'rules'");
+        }
+        if (set.stepUpThreshold() <= 0) {
+            throw new IllegalArgumentException("stepUpThreshold must be positive");
+        }
+        List<Compiled> rules = new ArrayList<>(set.rules().size());
+        Set<String> ids = new HashSet<>();
+        Set<String> actions = new TreeSet<>();
+        Set<String> countries = new TreeSet<>();
+        for (RiskRuleSet.Rule r : set.rules()) {
+            if (r.id() == null || r.id().isBlank() || !ids.add(r.id())) {
+                throw new IllegalArgumentException("Rule id missing or duplicated: " + r.id());
+            }
+            long mask = 0;
+            for (RiskSignal s : nullToEmpty(r.signals())) {
+                if (s == null) {
+                    throw new IllegalArgumentException("Unknown signal in rule " + r.id());
+                }
+                mask |= s.bit();
+            }
+            Set<String> ra = Set.copyOf(nullToEmpty(r.actionTypes()));
+            Set<String> rc = Set.copyOf(nullToEmpty(r.countries()));
+            actions.addAll(ra);
+            countries.addAll(rc);
+            String reason = r.reason() == null || r.reason().isBlank() ? r.id() : r.reason();
+            rules.add(new Compiled(ra, rc, mask, r.amountAtLeast(), r.score(), reason));
+        }
+        Map<String, Integer> thresholds = set.stepUpThresholds() == null ? Map.of() : set.stepUpThresholds();
+        // A threshold-only override still needs its own tables, even when no rule names the action.
+        actions.addAll(thresholds.keySet());
+        actions.remove(ANY);
+
+        List<String> actionScopes = new ArrayList<>(actions);
+        actionScopes.add(ANY);
+        List<String> countryScopes = new ArrayList<>(countries);
+        countryScopes.add(ANY);
+
+        Map<String, RiskAssessment> interned = new HashMap<>();
+        Map<String, Map<String, Table>> tables = new HashMap<>();
+        for (String a : actionScopes) {
+            int threshold = ANY.equals(a) ? set.stepUpThreshold() : thresholds.getOrDefault(a, set.stepUpThreshold());
+            Map<String, Table> byCountry = new HashMap<>();
+            for (String c : countryScopes) {
+                byCountry.put(c, table(a, c, rules, threshold, interned));
+            }
+            tables.put(a, Map.copyOf(byCountry));
+        }
+        String version = set.version() == null ? "unversioned" : set.version();
+        return new CompiledRules(version, rules.size(), Map.copyOf(tables));
+    }
+
+    private static Table table(String action, String country, List<Compiled> all, int threshold,
+                               Map<String, RiskAssessment> interned) {
+        List<Compiled> rules = new ArrayList<>();
+        for (Compiled r : all) {
+            if (r.inScope(action, country)) {
+                rules.add(r);
+            }
+        }
+        BigDecimal[] tiers = rules.stream()
+                .map(Compiled::amountAtLeast)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new))
+                .toArray(BigDecimal[]::new);
+
+        int masks = RiskSignal.maskCount();
+        RiskAssessment[] cells = new RiskAssessment[(tiers.length + 1) * masks];
+        for (int tier = 0; tier <= tiers.length; tier++) {
+            BigDecimal amount = tier == 0 ? null : tiers[tier - 1];
+            for (int mask = 0; mask < masks; mask++) {
+                int score = 0;
+                Set<String> reasons = new LinkedHashSet<>();
+                for (Compiled r : rules) {
+                    if (r.matches(mask, amount)) {
+                        score += r.score();
+                        reasons.add(r.reason());
+                    }
+                }
+                cells[tier * masks + mask] = assessment(Math.max(0, score), threshold, String.join(",", reasons), interned);
+            }
+        }
+        return new Table(tiers, cells);
+    }
+
+    private static RiskAssessment assessment(int score, int threshold, String reasons, Map<String, RiskAssessment> interned) {
+        RiskLevel level = score >= threshold ? RiskLevel.HIGH : (score >= (threshold / 2) ? RiskLevel.MEDIUM : RiskLevel.LOW);
+        return interned.computeIfAbsent(score + "|" + threshold + "|" + reasons,
+                k -> new RiskAssessment(score, level, score >= threshold, reasons));
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    /**
+     * @param amountAtLeast {@code null} when the rule has no amount condition
+     */
+    private record Compiled(Set<String> actions, Set<String> countries, long signalMask,
+                            BigDecimal amountAtLeast, int score, String reason) {
+
+        /** A rule restricted to specific actions/countries does not apply to the wildcard scope. */
+        boolean inScope(String action, String country) {
+            return (actions.isEmpty() || actions.contains(action))
+                    && (countries.isEmpty() || countries.contains(country));
+        }
+
+        /**
+         * @param amount lower bound of the amount tier ({@code null} = below every threshold)
+         */
+        boolean matches(long mask, BigDecimal amount) {
+            if ((mask & signalMask) != signalMask) {
+                return false;
+            }
+            return amountAtLeast == null || (amount != null && amount.compareTo(amountAtLeast) >= 0);
+        }
+    }
+}
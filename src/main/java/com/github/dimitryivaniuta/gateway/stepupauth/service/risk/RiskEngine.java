@@ -4,10 +4,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
-/** Risk scoring engine based on configurable signals. */
+/**
+ * Risk scoring engine based on compiled, hot-reloadable rules.
+ *
+ * <p>Rules come from {@link RiskRulesLoader} ({@code app.risk.rules.location}). Until a rule set is
+ * installed (or when no location is configured) the engine compiles the built-in rules from the
+ * {@code app.risk.*} properties: new device, new country, high amount, the velocity signals and
+ * impossible travel.</p>
+ */
 @Component
 public class RiskEngine {
     @Value("${app.risk.high-amount-threshold}") private BigDecimal highAmountThreshold;
@@ -15,14 +23,66 @@ public class RiskEngine {
     @Value("${app.risk.signals.new-device-score}") private int newDeviceScore;
     @Value("${app.risk.signals.new-country-score}") private int newCountryScore;
     @Value("${app.risk.signals.high-amount-score}") private int highAmountScore;
+    @Value("${app.risk.signals.velocity-score:0}") private int velocityScore;
+    @Value("${app.risk.signals.amount-velocity-score:0}") private int amountVelocityScore;
+    @Value("${app.risk.signals.device-velocity-score:0}") private int deviceVelocityScore;
+    @Value("${app.risk.signals.impossible-travel-score:0}") private int impossibleTravelScore;
+
+    private volatile CompiledRules rules;
+    private volatile Instant installedAt;
 
     public RiskAssessment assess(boolean isNewDevice, boolean isNewCountry, BigDecimal amount) {
-        int score = 0;
-        List<String> reasons = new ArrayList<>();
-        if (isNewDevice) { score += newDeviceScore; reasons.add("NEW_DEVICE"); }
-        if (isNewCountry) { score += newCountryScore; reasons.add("NEW_COUNTRY"); }
-        if (amount != null && amount.compareTo(highAmountThreshold) >= 0) { score += highAmountScore; reasons.add("HIGH_AMOUNT"); }
-        RiskLevel level = score >= stepUpThreshold ? RiskLevel.HIGH : (score >= (stepUpThreshold/2) ? RiskLevel.MEDIUM : RiskLevel.LOW);
-        return new RiskAssessment(score, level, score >= stepUpThreshold, String.join(",", reasons));
+        long signals = RiskSignal.NEW_DEVICE.when(isNewDevice) | RiskSignal.NEW_COUNTRY.when(isNewCountry);
+        return assess(null, null, signals, amount);
+    }
+
+    /**
+     * @param actionType request action type (selects action-scoped rules; unknown types use the defaults)
+     * @param country    ISO country (selects country-scoped rules)
+     * @param signals    {@link RiskSignal} bit mask
+     */
+    public RiskAssessment assess(String actionType, String country, long signals, BigDecimal amount) {
+        return rules().score(actionType, country, signals, amount);
+    }
+
+    /** Atomically replaces the active rules. */
+    void install(CompiledRules compiled) {
+        this.rules = compiled;
+        this.installedAt = Instant.now();
+    }
+
+    /** @return active rule set summary */
+    public RulesInfo rulesInfo() {
+        CompiledRules r = rules();
+        return new RulesInfo(r.version(), r.ruleCount(), r.tableCount(), installedAt);
+    }
+
+    /**
+     * Active rule set summary.
+     *
+     * @param installedAt when the rules were installed ({@code null} for the built-in rules)
+     */
+    public record RulesInfo(String version, int rules, int tables, Instant installedAt) { }
+
+    private CompiledRules rules() {
+        CompiledRules r = rules;
+        if (r == null) {
+            r = CompiledRules.compile(propertyRules());
+            rules = r;
+        }
+        return r;
+    }
+
+    /** The original hard-coded rules, parameterised by {@code app.risk.*}. */
+    RiskRuleSet propertyRules() {
+        return new RiskRuleSet("properties", stepUpThreshold, Map.of(), List.of(
+                new RiskRuleSet.Rule("new-device", null, null, List.of(RiskSignal.NEW_DEVICE), null, newDeviceScore, "NEW_DEVICE"),
+                new RiskRuleSet.Rule("new-country", null, null, List.of(RiskSignal.NEW_COUNTRY), null, newCountryScore, "NEW_COUNTRY"),
+                new RiskRuleSet.Rule("high-amount", null, null, null, highAmountThreshold, highAmountScore, "HIGH_AMOUNT"),
+                new RiskRuleSet.Rule("velocity", null, null, List.of(RiskSignal.HIGH_VELOCITY), null, velocityScore, "HIGH_VELOCITY"),
+                new RiskRuleSet.Rule("amount-velocity", null, null, List.of(RiskSignal.HIGH_AMOUNT_VELOCITY), null, amountVelocityScore, "HIGH_AMOUNT_VELOCITY"),
+                new RiskRuleSet.Rule("device-velocity", null, null, List.of(RiskSignal.DEVICE_VELOCITY), null, deviceVelocityScore, "DEVICE_VELOCITY"),
+                new RiskRuleSet.Rule("impossible-travel", null, null, List.of(RiskSignal.IMPOSSIBLE_TRAVEL), null, impossibleTravelScore, "IMPOSSIBLE_TRAVEL")
+        ));
     }
 }
@@ -0,0 +1,42 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative risk rules (JSON; {@code classpath:risk/rules.json} is an example).
+ *
+ * @param version            free-form version label, reported by the admin endpoint and logs
+ * @param stepUpThreshold    default score at which step-up is required
+ * @param stepUpThresholds   per action type overrides of {@code stepUpThreshold}
+ * @param rules              scoring rules; every matching rule adds its score
+ */
+public record RiskRuleSet(
+        String version,
+        int stepUpThreshold,
+        Map<String, Integer> stepUpThresholds,
+        List<Rule> rules
+) {
+
+    /**
+     * A rule matches when the request is in scope and all conditions hold.
+     *
+     * @param id            unique rule id
+     * @param actionTypes   scope: action types (empty/absent = any)
+     * @param countries     scope: ISO country codes (empty/absent = any)
+     * @param signals       all of these signals must be present (empty/absent = none required)
+     * @param amountAtLeast amount condition (absent = none)
+     * @param score         points added when the rule matches
+     * @param reason        reason code reported when the rule matches (absent = rule id)
+     */
+    public record Rule(
+            String id,
+            List<String> actionTypes,
+            List<String> countries,
+            List<RiskSignal> signals,
+            BigDecimal amountAtLeast,
+            int score,
+            String reason
+    ) { }
+}
@@ -0,0 +1,108 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.RiskRulesProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads the JSON rule set, compiles it and installs it into {@link RiskEngine}.
+ *
+ * <p>The resource is re-read every {@code app.risk.rules.reload-interval} (and on demand from the admin
+ * API); a changed file is compiled off to the side and swapped in atomically, so in-flight requests see
+ * either the old or the new rules, never a mix. An invalid file keeps the current rules and increments
+ * {@code risk.rules.reload{result=failed}}; at startup it fails the boot instead.</p>
+ */
+@Slf4j
+@Component
+public class RiskRulesLoader {
+
+    private final RiskEngine engine;
+    private final ObjectMapper mapper;
+    private final ResourceLoader resources;
+    private final RiskRulesProperties props;
+    private final Counter reloaded;
+    private final Counter failed;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private byte[] lastContent;
+
+    public RiskRulesLoader(RiskEngine engine, ObjectMapper mapper, ResourceLoader resources,
+                           RiskRulesProperties props, MeterRegistry registry) {
+        this.engine = engine;
+        this.mapper = mapper;
+        this.resources = resources;
+        this.props = props;
+        this.reloaded = Counter.builder("risk.rules.reload").tag("result", "reloaded").register(registry);
+        this.failed = Counter.builder("risk.rules.reload").tag("result", "failed").register(registry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (configured()) {
+            reloadIfChanged();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.rules.reload-interval:10s}")
+    public void poll() {
+        if (!configured()) {
+            return;
+        }
+        try {
+            reloadIfChanged();
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            log.error("Risk rules reload failed, keeping version {}: {}", engine.rulesInfo().version(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Reloads now (admin API).
+     *
+     * @throws IllegalArgumentException when the rule set is invalid (current rules are kept)
+     */
+    public RiskEngine.RulesInfo reload() throws IOException {
+        if (configured()) {
+            reloadIfChanged();
+        }
+        return engine.rulesInfo();
+    }
+
+    private boolean configured() {
+        return props.location() != null && !props.location().isBlank();
+    }
+
+    private void reloadIfChanged() throws IOException {
+        lock.lock();
+        try {
+            Resource resource = resources.getResource(props.location());
+            byte[] content;
+            try (InputStream in = resource.getInputStream()) {
+                content = in.readAllBytes();
+            }
+            if (Arrays.equals(content, lastContent)) {
+                return;
+            }
+            CompiledRules compiled = CompiledRules.compile(mapper.readValue(content, RiskRuleSet.class));
+            engine.install(compiled);
+            lastContent = content;
+            reloaded.increment();
+            log.info("Risk rules {} installed from {} ({} rules, {} tables)",
+                    compiled.version(), props.location(), compiled.ruleCount(), compiled.tableCount());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
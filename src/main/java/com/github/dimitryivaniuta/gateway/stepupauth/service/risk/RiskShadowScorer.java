@@ -0,0 +1,195 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.RiskShadowProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scores candidate rule sets ({@code app.risk.shadow.candidates}) next to the live rules.
+ *
+ * <p>{@link #submit} only hands the already-computed inputs to a bounded pool; when its queue is full
+ * the task is dropped and {@code risk.shadow.tasks{result=dropped}} is incremented, so the request thread
+ * never blocks and the live response never depends on a candidate. The submit cost is published as
+ * {@code risk.shadow.overhead}.</p>
+ *
+ * <p>Per candidate the scorer keeps, in memory since startup: step-up agreement / disagreement counts,
+ * the summed score delta and a score histogram next to the live one ({@link #report()}).</p>
+ */
+@Slf4j
+@Component
+public class RiskShadowScorer {
+
+    /** Histogram bucket width (score points); the last bucket is open-ended. */
+    static final int BUCKET_WIDTH = 10;
+    static final int BUCKETS = 21;
+
+    private final RiskEngine engine;
+    private final boolean enabled;
+    private final List<Candidate> candidates;
+    private final ThreadPoolExecutor pool;
+    private final AtomicLongArray liveScores = new AtomicLongArray(BUCKETS);
+    private final Timer overhead;
+    private final Counter scored;
+    private final Counter dropped;
+    private final Instant since = Instant.now();
+
+    public RiskShadowScorer(RiskEngine engine, RiskShadowProperties props, ObjectMapper mapper,
+                            ResourceLoader resources, MeterRegistry registry) throws IOException {
+        this.engine = engine;
+        this.candidates = new ArrayList<>();
+        for (Map.Entry<String, String> c : props.candidates().entrySet()) {
+            try (InputStream in = resources.getResource(c.getValue()).getInputStream()) {
+                CompiledRules rules = CompiledRules.compile(mapper.readValue(in, RiskRuleSet.class));
+                candidates.add(new Candidate(c.getKey(), rules));
+                log.info("Shadow candidate {} loaded from {} (version {}, {} rules)",
+                        c.getKey(), c.getValue(), rules.version(), rules.ruleCount());
+            }
+        }
+        this.enabled = props.enabled() && !candidates.isEmpty();
+
+        this.overhead = Timer.builder("risk.shadow.overhead")
+                .description("Request-thread cost of handing a decision to shadow scoring")
+                .register(registry);
+        this.scored = Counter.builder("risk.shadow.tasks").tag("result", "scored").register(registry);
+        this.dropped = Counter.builder("risk.shadow.tasks").tag("result", "dropped").register(registry);
+
+        this.pool = new ThreadPoolExecutor(props.threads(), props.threads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(props.queueCapacity()),
+                Thread.ofPlatform().name("risk-shadow-", 0).daemon().factory(),
+                (task, executor) -> dropped.increment());
+    }
+
+    /**
+     * Queues shadow scoring of one decision; returns immediately.
+     *
+     * @param live the assessment returned to the caller
+     */
+    public void submit(String actionType, String country, long signals, BigDecimal amount, RiskAssessment live) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        pool.execute(() -> score(actionType, country, signals, amount, live));
+        overhead.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void score(String actionType, String country, long signals, BigDecimal amount, RiskAssessment live) {
+        liveScores.incrementAndGet(bucket(live.score()));
+        for (Candidate c : candidates) {
+            c.record(live, c.rules.score(actionType, country, signals, amount));
+        }
+        scored.increment();
+    }
+
+    /** @return agreement and score distribution per candidate since startup */
+    public ShadowReport report() {
+        List<CandidateReport> out = new ArrayList<>(candidates.size());
+        for (Candidate c : candidates) {
+            out.add(c.report());
+        }
+        return new ShadowReport(enabled, engine.rulesInfo().version(), since,
+                (long) scored.count(), (long) dropped.count(), pool.getQueue().size(),
+                BUCKET_WIDTH, snapshot(liveScores), out);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static int bucket(int score) {
+        return Math.min(BUCKETS - 1, Math.max(0, score) / BUCKET_WIDTH);
+    }
+
+    private static long[] snapshot(AtomicLongArray a) {
+        long[] out = new long[a.length()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a.get(i);
+        }
+        return out;
+    }
+
+    private static final class Candidate {
+        final String name;
+        final CompiledRules rules;
+        final LongAdder agree = new LongAdder();
+        final LongAdder liveStepUpOnly = new LongAdder();
+        final LongAdder shadowStepUpOnly = new LongAdder();
+        final LongAdder levelChanged = new LongAdder();
+        final LongAdder scoreDelta = new LongAdder();
+        final AtomicLongArray scores = new AtomicLongArray(BUCKETS);
+
+        Candidate(String name, CompiledRules rules) {
+            this.name = name;
+            this.rules = rules;
+        }
+
+        void record(RiskAssessment live, RiskAssessment shadow) {
+            if (live.stepUpRequired() == shadow.stepUpRequired()) {
+                agree.increment();
+            } else if (live.stepUpRequired()) {
+                liveStepUpOnly.increment();
+            } else {
+                shadowStepUpOnly.increment();
+            }
+            if (live.level() != shadow.level()) {
+                levelChanged.increment();
+            }
+            scoreDelta.add(shadow.score() - live.score());
+            scores.incrementAndGet(bucket(shadow.score()));
+        }
+
+        CandidateReport report() {
+            long a = agree.sum();
+            long l = liveStepUpOnly.sum();
+            long s = shadowStepUpOnly.sum();
+            long total = a + l + s;
+            return new CandidateReport(name, rules.version(), total, a, l, s, levelChanged.sum(),
+                    total == 0 ? 0.0 : (double) a / total,
+                    total == 0 ? 0.0 : (double) scoreDelta.sum() / total,
+                    snapshot(scores));
+        }
+    }
+
+    /**
+     * Shadow scoring summary.
+     *
+     * @param liveVersion  version of the live rules (candidates are compared against whatever was live)
+     * @param scored       decisions scored by the candidates
+     * @param dropped      decisions not shadow-scored because the queue was full
+     * @param liveScores   live score histogram, {@code bucketWidth} points per bucket, last bucket open-ended
+     */
+    public record ShadowReport(boolean enabled, String liveVersion, Instant since, long scored, long dropped,
+                               int queued, int bucketWidth, long[] liveScores, List<CandidateReport> candidates) { }
+
+    /**
+     * One candidate against the live rules.
+     *
+     * @param liveStepUpOnly   live required step-up, the candidate would have approved
+     * @param shadowStepUpOnly the candidate would have required step-up, live approved
+     * @param levelChanged     decisions where the risk level differs
+     * @param meanScoreDelta   mean of (candidate score - live score)
+     */
+    public record CandidateReport(String name, String version, long decisions, long agree,
+                                  long liveStepUpOnly, long shadowStepUpOnly, long levelChanged,
+                                  double agreementRate, double meanScoreDelta, long[] scores) { }
+}
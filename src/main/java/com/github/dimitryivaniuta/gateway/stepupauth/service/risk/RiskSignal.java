@@ -0,0 +1,32 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+/**
+ * Boolean risk signals; a request's signals are passed to the engine as a bit mask.
+ */
+public enum RiskSignal {
+    NEW_DEVICE,
+    NEW_COUNTRY,
+    /** Burst of transactions by the user (1/10/60 minute windows). */
+    HIGH_VELOCITY,
+    /** High amount sum by the user (10/60 minute windows). */
+    HIGH_AMOUNT_VELOCITY,
+    /** Burst of transactions from one device of the user (10 minute window). */
+    DEVICE_VELOCITY,
+    /** Implied travel speed from the last trusted country is physically implausible. */
+    IMPOSSIBLE_TRAVEL;
+
+    /** @return this signal's bit in a signal mask */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /** @return mask with this signal set when {@code present} */
+    public long when(boolean present) {
+        return present ? bit() : 0L;
+    }
+
+    /** @return number of distinct masks ({@code 2^signals}) */
+    static int maskCount() {
+        return 1 << values().length;
+    }
+}
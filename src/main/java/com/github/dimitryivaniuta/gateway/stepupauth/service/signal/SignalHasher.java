@@ -2,18 +2,57 @@ package com.github.dimitryivaniuta.gateway.stepupauth.service.signal;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
-/** Hashes sensitive signals like device ids (do not store raw). */
+/**
+ * Hashes sensitive signals like device ids (do not store raw).
+ *
+ * <p>Hot path notes: the SHA-256 {@link MessageDigest} is reused per thread (provider lookup is
+ * expensive) and hex encoding uses a lookup table instead of {@code String.format}.
+ * Persistence uses the raw 32-byte form ({@link #sha256Bytes}); hex is for logs and cache keys.</p>
+ */
 public final class SignalHasher {
+    /** Length of a SHA-256 digest in bytes. */
+    public static final int SHA256_LENGTH = 32;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(SignalHasher::newSha256);
+
     private SignalHasher() { }
+
+    /**
+     * @return raw SHA-256 digest (32 bytes) of the UTF-8 encoded value
+     */
+    public static byte[] sha256Bytes(String raw) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return md.digest(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return lowercase hex SHA-256 digest (64 chars) of the UTF-8 encoded value
+     */
     public static String sha256(String raw) {
+        return toHex(sha256Bytes(raw));
+    }
+
+    /**
+     * Lowercase hex encoding without per-byte formatting.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            out[j++] = HEX[v >>> 4];
+            out[j++] = HEX[v & 0x0F];
+        }
+        return new String(out);
+    }
+
+    private static MessageDigest newSha256() {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] d = md.digest(raw.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(d.length * 2);
-            for (byte b : d) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (Exception e) {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("Unable to hash", e);
         }
     }
@@ -0,0 +1,77 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.trust;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over (userId, deviceHash) pairs.
+ *
+ * <p>Device hashes are SHA-256 digests and already uniformly distributed, so the k probe
+ * positions are derived by double hashing from the digest bytes mixed with the user id;
+ * no extra hashing is done. Bits are only ever set, never cleared.</p>
+ */
+final class DeviceBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    DeviceBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    void put(UUID userId, byte[] deviceHash) {
+        long h1 = h1(userId, deviceHash);
+        long h2 = h2(userId, deviceHash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long cur = bits.get(word);
+            while ((cur & mask) == 0 && !bits.compareAndSet(word, cur, cur | mask)) {
+                cur = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} if the pair was definitely never added
+     */
+    boolean mightContain(UUID userId, byte[] deviceHash) {
+        long h1 = h1(userId, deviceHash);
+        long h2 = h2(userId, deviceHash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return memory held by the bit array */
+    long sizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    private static long h1(UUID userId, byte[] h) {
+        return readLong(h, 0) ^ userId.getMostSignificantBits();
+    }
+
+    private static long h2(UUID userId, byte[] h) {
+        // Odd step so every probe sequence cycles through distinct positions.
+        return (readLong(h, 8) ^ userId.getLeastSignificantBits()) | 1L;
+    }
+
+    private static long readLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            v = (v << 8) | (b[off + i] & 0xFFL);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,257 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.trust;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.TrustProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.repo.TrustedDeviceRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process trust baseline: per-user snapshots plus a Bloom filter over all trusted devices.
+ *
+ * <ul>
+ *   <li>Bloom filter answers "definitely new device" without touching Postgres or the snapshot</li>
+ *   <li>Snapshots are loaded single-flight (concurrent misses for one user share one load)</li>
+ *   <li>Eviction is bounded by an approximate byte budget ({@code app.trust.cache.max-bytes})</li>
+ *   <li>Writes invalidate the user's snapshot immediately and again after commit</li>
+ * </ul>
+ *
+ * <p>Multi-node: devices trusted elsewhere reach the Bloom filter on the next refresh
+ * ({@code app.trust.bloom.refresh-interval}) and cached snapshots within {@code app.trust.cache.ttl};
+ * until then a device may be treated as new, which only ever adds a step-up.</p>
+ *
+ * <p>Metrics: {@code cache.*{cache=trustBaseline}}, {@code trust.cache.hit.ratio},
+ * {@code trust.cache.bytes}, {@code trust.bloom.bytes}.</p>
+ */
+@Slf4j
+@Component
+public class TrustBaselineCache {
+
+    /** Overlap for incremental Bloom refreshes (rows stamped before commit by slow transactions). */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final TrustedDeviceRepository devices;
+    private final TransactionTemplate readTx;
+    private final TrustProperties props;
+    private final Cache<UUID, TrustSnapshot> snapshots;
+    private final DeviceBloomFilter bloom;
+    private final ConcurrentHashMap<UUID, Load> inFlight = new ConcurrentHashMap<>();
+
+    private volatile boolean bloomReady;
+    private volatile Instant bloomSyncedAt = Instant.EPOCH;
+
+    /** A snapshot load in progress; {@code stale} is set when the user's trust changes meanwhile. */
+    private static final class Load {
+        final CompletableFuture<TrustSnapshot> future = new CompletableFuture<>();
+        volatile boolean stale;
+    }
+
+    public TrustBaselineCache(TrustedDeviceRepository devices,
+                              PlatformTransactionManager txManager,
+                              TrustProperties props,
+                              MeterRegistry registry) {
+        this.devices = devices;
+        this.props = props;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(props.cache().maxBytes().toBytes())
+                .<UUID, TrustSnapshot>weigher((k, v) -> v.weightBytes())
+                .expireAfterWrite(props.cache().ttl())
+                .recordStats()
+                .build();
+        this.bloom = props.bloom().enabled()
+                ? new DeviceBloomFilter(props.bloom().expectedInsertions(), props.bloom().falsePositiveRate())
+                : null;
+
+        CaffeineCacheMetrics.monitor(registry, snapshots, "trustBaseline");
+        Gauge.builder("trust.cache.hit.ratio", snapshots, c -> c.stats().hitRate()).register(registry);
+        Gauge.builder("trust.cache.bytes", snapshots,
+                c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .baseUnit("bytes").register(registry);
+        if (bloom != null) {
+            Gauge.builder("trust.bloom.bytes", bloom, DeviceBloomFilter::sizeInBytes).baseUnit("bytes").register(registry);
+        }
+    }
+
+    /** @return true if lookups should be served from snapshots */
+    public boolean enabled() {
+        return props.cache().enabled();
+    }
+
+    /**
+     * @return {@code true} only if the device was definitely never trusted for this user
+     */
+    public boolean definitelyUntrusted(UUID userId, byte[] deviceHash) {
+        return bloomReady && !bloom.mightContain(userId, deviceHash);
+    }
+
+    /** @return the user's cached snapshot, or {@code null} (never loads) */
+    TrustSnapshot cachedSnapshot(UUID userId) {
+        return snapshots.getIfPresent(userId);
+    }
+
+    /**
+     * Returns the user's snapshot, loading it once for all concurrent callers on a miss.
+     *
+     * <p>Single-flight is done with a future map rather than {@code Cache.get(key, loader)}: the
+     * latter runs the loader inside a {@code ConcurrentHashMap} bin lock, which pins virtual threads
+     * for the whole JDBC round trip. Here the winner loads on its own thread (reusing its transaction's
+     * connection) and other callers park on the future.</p>
+     */
+    TrustSnapshot snapshot(UUID userId) {
+        TrustSnapshot cached = snapshots.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Load mine = new Load();
+        Load running = inFlight.putIfAbsent(userId, mine);
+        if (running != null) {
+            return await(running.future);
+        }
+        try {
+            TrustSnapshot loaded = load(userId);
+            // Do not keep a snapshot that may predate a trust write of this user made while loading.
+            // Put first, then check: an invalidation that misses the flag still evicts the entry.
+            snapshots.put(userId, loaded);
+            if (mine.stale) {
+                snapshots.asMap().remove(userId, loaded);
+            }
+            mine.future.complete(loaded);
+            return loaded;
+        } catch (RuntimeException ex) {
+            mine.future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(userId, mine);
+        }
+    }
+
+    private static TrustSnapshot await(CompletableFuture<TrustSnapshot> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Records a trust write: the Bloom filter learns the device and, if rows changed, the snapshot is
+     * dropped now and again after commit (so a concurrent reload cannot cache pre-commit state).
+     */
+    public void onTrusted(UUID userId, byte[] deviceHash, boolean changed) {
+        if (bloom != null) {
+            bloom.put(userId, deviceHash);
+        }
+        if (!changed) {
+            return;
+        }
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    /** Drops the user's snapshot and marks a load of it in progress as stale; other users are unaffected. */
+    private void invalidate(UUID userId) {
+        Load loading = inFlight.get(userId);
+        if (loading != null) {
+            loading.stale = true;
+        }
+        snapshots.invalidate(userId);
+    }
+
+    private TrustSnapshot load(UUID userId) {
+        var rows = devices.findTrustBaseline(userId);
+        List<byte[]> hashes = new ArrayList<>(rows.size());
+        for (var row : rows) {
+            if (row.getDeviceHash() != null) hashes.add(row.getDeviceHash());
+        }
+        var first = rows.isEmpty() ? null : rows.get(0);
+        return TrustSnapshot.of(
+                hashes,
+                first == null ? null : first.getLastCountry(),
+                first == null ? null : first.getCountryUpdatedAt());
+    }
+
+    /**
+     * Initial Bloom filter fill; the filter is only consulted once this completed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (bloom == null) {
+            return;
+        }
+        Thread.ofVirtual().name("trust-bloom-warmup").start(() -> {
+            try {
+                long n = pullSince(Instant.EPOCH);
+                bloomReady = true;
+                log.info("Trusted-device Bloom filter ready: {} devices, {} bytes", n, bloom.sizeInBytes());
+            } catch (Exception ex) {
+                log.warn("Trusted-device Bloom filter warm-up failed; fast path stays disabled", ex);
+            }
+        });
+    }
+
+    /**
+     * Pulls in devices trusted by other nodes since the last sync.
+     */
+    @Scheduled(fixedDelayString = "${app.trust.bloom.refresh-interval:10s}")
+    public void refreshBloom() {
+        if (bloom == null || !bloomReady) {
+            return;
+        }
+        try {
+            pullSince(bloomSyncedAt.minus(REFRESH_OVERLAP));
+        } catch (Exception ex) {
+            // Keep serving; devices trusted elsewhere are picked up by the next successful refresh.
+            log.warn("Trusted-device Bloom filter refresh failed", ex);
+        }
+    }
+
+    private long pullSince(Instant since) {
+        Instant startedAt = Instant.now();
+        Long count = readTx.execute(status -> {
+            long n = 0;
+            try (var rows = devices.streamFirstSeenSince(since)) {
+                for (var it = rows.iterator(); it.hasNext(); n++) {
+                    var row = it.next();
+                    bloom.put(row.getUserId(), row.getDeviceHash());
+                }
+            }
+            return n;
+        });
+        bloomSyncedAt = startedAt;
+        return count == null ? 0 : count;
+    }
+}
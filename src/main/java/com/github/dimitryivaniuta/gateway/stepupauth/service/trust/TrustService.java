@@ -1,7 +1,6 @@
 package com.github.dimitryivaniuta.gateway.stepupauth.service.trust;
 
-import com.github.dimitryivaniuta.gateway.stepupauth.domain.CountryProfileEntity;
-import com.github.dimitryivaniuta.gateway.stepupauth.domain.TrustedDeviceEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.TrustProperties;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.CountryProfileRepository;
 import com.github.dimitryivaniuta.gateway.stepupauth.repo.TrustedDeviceRepository;
 import jakarta.transaction.Transactional;
@@ -10,46 +9,63 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.util.UUID;
 
-/** Maintains trusted device+country baseline (after safe/verified actions). */
+/**
+ * Maintains trusted device+country baseline (after safe/verified actions).
+ *
+ * <p>Reads go through {@link TrustBaselineCache} when enabled; otherwise all authorize-time
+ * signals come from a single native query.</p>
+ */
 @Service
 public class TrustService {
     private final TrustedDeviceRepository devices;
     private final CountryProfileRepository countries;
+    private final TrustBaselineCache baseline;
+    private final TrustProperties props;
 
-    public TrustService(TrustedDeviceRepository devices, CountryProfileRepository countries) {
-        this.devices = devices; this.countries = countries;
+    public TrustService(TrustedDeviceRepository devices, CountryProfileRepository countries,
+                        TrustBaselineCache baseline, TrustProperties props) {
+        this.devices = devices; this.countries = countries; this.baseline = baseline; this.props = props;
     }
 
-    public boolean isDeviceTrusted(UUID userId, String deviceHash) {
-        return devices.findByUserIdAndDeviceHash(userId, deviceHash).isPresent();
-    }
-
-    public boolean isNewCountry(UUID userId, String country) {
-        var p = countries.findById(userId);
-        if (p.isEmpty() || p.get().getLastCountry() == null) return false;
-        return !p.get().getLastCountry().equalsIgnoreCase(country);
+    /**
+     * Resolves device and country trust for an authorize call with at most one statement
+     * (none when the user's snapshot is cached).
+     *
+     * <p>The Bloom filter is asked first: for a device it rules out, only the country is needed, which
+     * comes from a cached snapshot or a primary-key read of {@code country_profile}, never from loading
+     * the user's device list.</p>
+     */
+    public TrustSignals signals(UUID userId, byte[] deviceHash, String country) {
+        if (baseline.definitelyUntrusted(userId, deviceHash)) {
+            TrustSnapshot cached = baseline.enabled() ? baseline.cachedSnapshot(userId) : null;
+            if (cached != null) {
+                return TrustSignals.of(false, cached.lastCountry(), cached.countryUpdatedAt(), country);
+            }
+            var profile = countries.findById(userId).orElse(null);
+            return TrustSignals.of(false,
+                    profile == null ? null : profile.getLastCountry(),
+                    profile == null ? null : profile.getUpdatedAt(),
+                    country);
+        }
+        if (baseline.enabled()) {
+            TrustSnapshot s = baseline.snapshot(userId);
+            return TrustSignals.of(s.containsDevice(deviceHash), s.lastCountry(), s.countryUpdatedAt(), country);
+        }
+        var row = devices.findTrustSignals(userId, deviceHash);
+        return TrustSignals.of(row.getDeviceKnown(), row.getLastCountry(), row.getCountryUpdatedAt(), country);
     }
 
+    /**
+     * Records device + country as trusted: two upserts, no reads, and no writes when both rows are fresh.
+     */
     @Transactional
-    public void trust(UUID userId, String deviceHash, String country) {
-        var d = devices.findByUserIdAndDeviceHash(userId, deviceHash).orElseGet(() -> {
-            TrustedDeviceEntity nd = new TrustedDeviceEntity();
-            nd.setUserId(userId);
-            nd.setDeviceHash(deviceHash);
-            nd.setFirstSeenAt(Instant.now());
-            nd.setLastSeenAt(Instant.now());
-            return nd;
-        });
-        d.setLastSeenAt(Instant.now());
-        devices.save(d);
-
-        var cp = countries.findById(userId).orElseGet(() -> {
-            CountryProfileEntity n = new CountryProfileEntity();
-            n.setUserId(userId);
-            return n;
-        });
-        cp.setLastCountry(country);
-        cp.setUpdatedAt(Instant.now());
-        countries.save(cp);
+    public void trust(UUID userId, byte[] deviceHash, String country) {
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(props.touchGranularity());
+
+        int changed = devices.upsertTrusted(userId, deviceHash, now, staleBefore)
+                + countries.upsertLastCountry(userId, country, now, staleBefore);
+
+        baseline.onTrusted(userId, deviceHash, changed > 0);
     }
 }
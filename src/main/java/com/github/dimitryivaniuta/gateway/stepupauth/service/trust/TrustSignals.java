@@ -0,0 +1,26 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.trust;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal;
+
+import java.time.Instant;
+
+/**
+ * Trust signals for one authorize call, resolved in a single lookup.
+ *
+ * @param deviceTrusted    device hash is in the user's trusted set
+ * @param newCountry       request country differs from the last trusted country
+ * @param lastCountry      last trusted country, or {@code null} if none yet
+ * @param lastCountryAt    when the last trusted country was recorded, or {@code null}
+ */
+public record TrustSignals(boolean deviceTrusted, boolean newCountry, String lastCountry, Instant lastCountryAt) {
+
+    static TrustSignals of(boolean deviceTrusted, String lastCountry, Instant lastCountryAt, String country) {
+        boolean newCountry = lastCountry != null && !lastCountry.equalsIgnoreCase(country);
+        return new TrustSignals(deviceTrusted, newCountry, lastCountry, lastCountryAt);
+    }
+
+    /** @return these signals as a {@link RiskSignal} mask */
+    public long riskSignals() {
+        return RiskSignal.NEW_DEVICE.when(!deviceTrusted) | RiskSignal.NEW_COUNTRY.when(newCountry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.trust;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable trust baseline of one user.
+ *
+ * <p>Device hashes are packed into one sorted {@code byte[]} (32 bytes per device) and searched
+ * with binary search, which keeps a snapshot to a single array regardless of device count.</p>
+ */
+final class TrustSnapshot {
+
+    private static final int H = SignalHasher.SHA256_LENGTH;
+
+    private final byte[] deviceHashes;
+    private final String lastCountry;
+    private final Instant countryUpdatedAt;
+
+    private TrustSnapshot(byte[] deviceHashes, String lastCountry, Instant countryUpdatedAt) {
+        this.deviceHashes = deviceHashes;
+        this.lastCountry = lastCountry;
+        this.countryUpdatedAt = countryUpdatedAt;
+    }
+
+    static TrustSnapshot of(List<byte[]> hashes, String lastCountry, Instant countryUpdatedAt) {
+        byte[][] sorted = hashes.stream()
+                .filter(h -> h != null && h.length == H)
+                .sorted(Arrays::compareUnsigned)
+                .toArray(byte[][]::new);
+        byte[] packed = new byte[sorted.length * H];
+        for (int i = 0; i < sorted.length; i++) {
+            System.arraycopy(sorted[i], 0, packed, i * H, H);
+        }
+        return new TrustSnapshot(packed, lastCountry, countryUpdatedAt);
+    }
+
+    boolean containsDevice(byte[] deviceHash) {
+        int lo = 0;
+        int hi = deviceHashes.length / H - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Arrays.compareUnsigned(deviceHashes, mid * H, mid * H + H, deviceHash, 0, H);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    String lastCountry() {
+        return lastCountry;
+    }
+
+    Instant countryUpdatedAt() {
+        return countryUpdatedAt;
+    }
+
+    /** @return rough retained size, used as the cache weight */
+    int weightBytes() {
+        return 96 + deviceHashes.length;
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process velocity counters ({@code app.risk.velocity.store=memory}); each node sees its own traffic.
+ *
+ * <p>One {@link VelocityRing} per user plus {@value #DEVICE_SLOTS} device rings per user, claimed by the
+ * first 8 bytes of the device hash (least recently used slot is recycled). Recording is a map lookup and
+ * a few CAS operations; evaluating the windows reads at most 60 buckets. Nothing is allocated once the
+ * user is tracked. Users idle for more than an hour are swept every minute.</p>
+ *
+ * <p>When {@code max-users} is reached, a new user makes room by evicting the least recently active
+ * tenth of the tracked users (by last minute seen, one scan per eviction round), counted in
+ * {@code risk.velocity.evictions}.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.risk.velocity", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryVelocityStore implements VelocityStore {
+
+    static final int DEVICE_SLOTS = 4;
+    private static final int WINDOW = 60;
+    private static final int EVICT_DIVISOR = 10;
+
+    /** Counters of one user. */
+    static final class UserVelocity {
+        final VelocityRing user = new VelocityRing();
+        final AtomicLongArray deviceKeys = new AtomicLongArray(DEVICE_SLOTS);
+        final AtomicLongArray deviceSeen = new AtomicLongArray(DEVICE_SLOTS);
+        final VelocityRing[] devices = new VelocityRing[DEVICE_SLOTS];
+        volatile long lastMinute;
+
+        UserVelocity() {
+            for (int i = 0; i < DEVICE_SLOTS; i++) {
+                devices[i] = new VelocityRing();
+            }
+        }
+
+        /** @return the device's ring, claiming (and clearing) the least recently used slot if needed */
+        VelocityRing device(long key, long minute) {
+            for (int attempt = 0; attempt < DEVICE_SLOTS; attempt++) {
+                int victim = 0;
+                for (int i = 0; i < DEVICE_SLOTS; i++) {
+                    if (deviceKeys.get(i) == key) {
+                        deviceSeen.set(i, minute);
+                        return devices[i];
+                    }
+                    if (deviceSeen.get(i) < deviceSeen.get(victim)) {
+                        victim = i;
+                    }
+                }
+                long old = deviceKeys.get(victim);
+                if (deviceKeys.compareAndSet(victim, old, key)) {
+                    devices[victim].clear();
+                    deviceSeen.set(victim, minute);
+                    return devices[victim];
+                }
+            }
+            return null;
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, UserVelocity> users = new ConcurrentHashMap<>();
+    private final VelocityLimits limits;
+    private final int maxUsers;
+    private final ReentrantLock evicting = new ReentrantLock();
+    private final Counter evictions;
+
+    public InMemoryVelocityStore(VelocityProperties props, MeterRegistry registry) {
+        this.limits = VelocityLimits.of(props.limits());
+        this.maxUsers = props.maxUsers();
+        Gauge.builder("risk.velocity.users", users, ConcurrentHashMap::size).register(registry);
+        this.evictions = Counter.builder("risk.velocity.evictions")
+                .description("Users dropped from the in-memory velocity store to stay under max-users")
+                .register(registry);
+    }
+
+    @Override
+    public long record(UUID userId, byte[] deviceHash, BigDecimal amount, long nowMillis) {
+        long minute = nowMillis / 60_000;
+        UserVelocity v = users.get(userId);
+        if (v == null) {
+            if (users.size() >= maxUsers) {
+                evictLeastRecentlyUsed();
+            }
+            v = users.computeIfAbsent(userId, id -> new UserVelocity());
+        }
+        v.lastMinute = minute;
+        v.user.add(minute, VelocityLimits.cents(amount));
+        VelocityRing device = v.device(deviceKey(deviceHash), minute);
+        if (device != null) {
+            device.add(minute, 0);
+        }
+
+        long c1 = 0, c10 = 0, c60 = 0, a10 = 0, a60 = 0, d10 = 0;
+        for (int i = 0; i < WINDOW; i++) {
+            long m = minute - i;
+            long c = v.user.count(m);
+            long a = v.user.amount(m);
+            if (i < 1) {
+                c1 += c;
+            }
+            if (i < 10) {
+                c10 += c;
+                a10 += a;
+                if (device != null) {
+                    d10 += device.count(m);
+                }
+            }
+            c60 += c;
+            a60 += a;
+        }
+        return limits.signals(c1, c10, c60, a10, a60, d10);
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void sweep() {
+        long idleBefore = System.currentTimeMillis() / 60_000 - WINDOW;
+        users.values().removeIf(v -> v.lastMinute < idleBefore);
+    }
+
+    /**
+     * Drops the least recently active users down to 90% of {@code max-users}. Ages are minute-granular:
+     * every user last seen before the cutoff minute goes, then as many of the cutoff minute as needed.
+     * One caller evicts at a time; concurrent callers go ahead over the cap meanwhile.
+     */
+    private void evictLeastRecentlyUsed() {
+        if (!evicting.tryLock()) {
+            return;
+        }
+        try {
+            int target = users.size() - maxUsers + Math.max(1, maxUsers / EVICT_DIVISOR);
+            if (target <= 0 || users.size() < maxUsers) {
+                return;
+            }
+            TreeMap<Long, Integer> byMinute = new TreeMap<>();
+            for (UserVelocity v : users.values()) {
+                byMinute.merge(v.lastMinute, 1, Integer::sum);
+            }
+            long cutoff = Long.MIN_VALUE;
+            int older = 0;
+            for (Map.Entry<Long, Integer> e : byMinute.entrySet()) {
+                if (older + e.getValue() >= target) {
+                    cutoff = e.getKey();
+                    break;
+                }
+                older += e.getValue();
+            }
+            int removed = 0;
+            for (Iterator<UserVelocity> it = users.values().iterator(); it.hasNext(); ) {
+                if (it.next().lastMinute < cutoff) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            for (Iterator<UserVelocity> it = users.values().iterator(); it.hasNext() && removed < target; ) {
+                if (it.next().lastMinute == cutoff) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            evictions.increment(removed);
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    /** First 8 bytes of the hash; 0 marks a free slot, so it is remapped. */
+    private static long deviceKey(byte[] hash) {
+        long k = 0;
+        for (int i = 0; i < 8 && i < hash.length; i++) {
+            k = (k << 8) | (hash[i] & 0xFF);
+        }
+        return k == 0 ? 1 : k;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.signal.SignalHasher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis velocity counters shared by all nodes ({@code app.risk.velocity.store=redis}).
+ *
+ * <p>Fixed-size minute rings in hashes (60 slots per user, 10 per device), updated and summed by
+ * {@code redis/velocity-record.lua} in one round trip. User and device keys share a hash tag so the
+ * script is cluster-safe.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.risk.velocity", name = "store", havingValue = "redis")
+public class RedisVelocityStore implements VelocityStore {
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> RECORD =
+            (RedisScript) RedisScript.of(new ClassPathResource("redis/velocity-record.lua"), List.class);
+    private static final String TTL_MILLIS = Long.toString(61 * 60_000L);
+
+    private final StringRedisTemplate redis;
+    private final VelocityLimits limits;
+
+    public RedisVelocityStore(StringRedisTemplate redis, VelocityProperties props) {
+        this.redis = redis;
+        this.limits = VelocityLimits.of(props.limits());
+    }
+
+    @Override
+    public long record(UUID userId, byte[] deviceHash, BigDecimal amount, long nowMillis) {
+        String userKey = "vel:{" + userId + "}";
+        String deviceKey = userKey + ":d:" + SignalHasher.toHex(Arrays.copyOf(deviceHash, 8));
+        List<Long> r = redis.execute(RECORD, List.of(userKey, deviceKey),
+                Long.toString(nowMillis / 60_000), Long.toString(VelocityLimits.cents(amount)), TTL_MILLIS);
+        if (r == null || r.size() < 6) {
+            return 0;
+        }
+        return limits.signals(r.get(0), r.get(1), r.get(2), r.get(3), r.get(4), r.get(5));
+    }
+}
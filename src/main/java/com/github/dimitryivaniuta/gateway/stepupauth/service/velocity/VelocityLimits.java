@@ -0,0 +1,41 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal;
+
+import java.math.BigDecimal;
+
+/**
+ * Velocity thresholds turned into {@link RiskSignal} bits. Amounts are compared in minor units (cents).
+ */
+record VelocityLimits(int userCount1m, int userCount10m, int userCount60m,
+                      long userCents10m, long userCents60m, int deviceCount10m) {
+
+    static VelocityLimits of(VelocityProperties.Limits l) {
+        return new VelocityLimits(l.userCount1m(), l.userCount10m(), l.userCount60m(),
+                cents(l.userAmount10m()), cents(l.userAmount60m()), l.deviceCount10m());
+    }
+
+    /** Allocation-free for the usual compact {@link BigDecimal}s. */
+    static long cents(BigDecimal amount) {
+        return amount == null ? 0 : Math.max(0, Math.round(amount.doubleValue() * 100));
+    }
+
+    long signals(long c1, long c10, long c60, long cents10, long cents60, long device10) {
+        long mask = 0;
+        if (reached(c1, userCount1m) || reached(c10, userCount10m) || reached(c60, userCount60m)) {
+            mask |= RiskSignal.HIGH_VELOCITY.bit();
+        }
+        if (reached(cents10, userCents10m) || reached(cents60, userCents60m)) {
+            mask |= RiskSignal.HIGH_AMOUNT_VELOCITY.bit();
+        }
+        if (reached(device10, deviceCount10m)) {
+            mask |= RiskSignal.DEVICE_VELOCITY.bit();
+        }
+        return mask;
+    }
+
+    private static boolean reached(long value, long limit) {
+        return limit > 0 && value >= limit;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free 64-minute ring of (count, amount) buckets.
+ *
+ * <p>Each slot packs a 24-bit minute tag with a 40-bit value, so a CAS both resets a stale slot and adds
+ * to it; readers ignore slots whose tag is not the minute they ask for. Updates are O(1) and allocate
+ * nothing.</p>
+ */
+final class VelocityRing {
+
+    static final int SLOTS = 64;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int TAG_SHIFT = 40;
+    private static final long VALUE_MASK = (1L << TAG_SHIFT) - 1;
+    private static final long TAG_MASK = (1L << 24) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray amounts = new AtomicLongArray(SLOTS);
+
+    void add(long minute, long cents) {
+        bump(counts, minute, 1);
+        if (cents > 0) {
+            bump(amounts, minute, Math.min(cents, VALUE_MASK >>> 8));
+        }
+    }
+
+    long count(long minute) {
+        return read(counts, minute);
+    }
+
+    long amount(long minute) {
+        return read(amounts, minute);
+    }
+
+    void clear() {
+        for (int i = 0; i < SLOTS; i++) {
+            counts.set(i, 0);
+            amounts.set(i, 0);
+        }
+    }
+
+    private static void bump(AtomicLongArray a, long minute, long delta) {
+        int slot = (int) (minute & SLOT_MASK);
+        long tag = (minute & TAG_MASK) << TAG_SHIFT;
+        while (true) {
+            long v = a.get(slot);
+            long next = (v & ~VALUE_MASK) == tag ? v + Math.min(delta, VALUE_MASK - (v & VALUE_MASK)) : tag | delta;
+            if (a.compareAndSet(slot, v, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long read(AtomicLongArray a, long minute) {
+        long v = a.get((int) (minute & SLOT_MASK));
+        return (v >>> TAG_SHIFT) == (minute & TAG_MASK) ? v & VALUE_MASK : 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Velocity signals for the authorize path (backend chosen by {@code app.risk.velocity.store}).
+ */
+@Service
+public class VelocityService {
+
+    private final VelocityStore store;
+    private final boolean enabled;
+
+    public VelocityService(VelocityStore store, VelocityProperties props) {
+        this.store = store;
+        this.enabled = props.enabled();
+    }
+
+    /**
+     * Counts this transaction and returns the velocity {@code RiskSignal} bits it triggers.
+     */
+    public long record(UUID userId, byte[] deviceHash, BigDecimal amount) {
+        return enabled ? store.record(userId, deviceHash, amount, System.currentTimeMillis()) : 0L;
+    }
+}
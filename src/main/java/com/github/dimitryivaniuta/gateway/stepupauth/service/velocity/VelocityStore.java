@@ -0,0 +1,18 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Sliding-window transaction counters per user and per user+device.
+ */
+public interface VelocityStore {
+
+    /**
+     * Counts one transaction (including this one in the windows) and evaluates the limits.
+     *
+     * @param deviceHash 32-byte device hash
+     * @return {@link com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal} velocity bits
+     */
+    long record(UUID userId, byte[] deviceHash, BigDecimal amount, long nowMillis);
+}
@@ -0,0 +1,14 @@
+-- Keyset pagination of admin / "my decisions" lists on (created_at, id), newest first.
+-- Each index matches one list's order exactly, so a page is a bounded index range scan
+-- starting right after the cursor, whatever the table size.
+
+create index if not exists idx_risk_decision_created_id on risk_decision(created_at desc, id desc);
+
+drop index if exists idx_risk_decision_user_created;
+create index if not exists idx_risk_decision_user_created_id on risk_decision(user_id, created_at desc, id desc);
+
+create index if not exists idx_step_up_challenge_created_id on step_up_challenge(created_at desc, id desc);
+
+-- outbox_event(created_at desc, id desc) exists since V8; the event-type list needs id as tie-breaker too.
+drop index if exists idx_outbox_event_type_created;
+create index idx_outbox_event_type_created_id on outbox_event(event_type, created_at desc, id desc);
@@ -0,0 +1,10 @@
+-- Admin monitoring events filtered by user: one index range scan per page on
+-- (payload userId, created_at desc, id desc). Partial on the monitoring event types so other
+-- outbox traffic never enters it; the predicate must match MonitoringEventQuery.MONITORING_TYPES
+-- literally.
+--
+-- Without a user filter the query walks idx_outbox_created_at (created_at desc, id desc, V8) and
+-- checks the type on each row, which is cheap while monitoring events are most of the outbox.
+create index if not exists idx_outbox_monitoring_user_created
+    on outbox_event ((payload_json->>'userId'), created_at desc, id desc)
+    where event_type in ('RISK_DECISION_MADE', 'STEP_UP_REQUIRED', 'STEP_UP_VERIFIED');
@@ -0,0 +1,16 @@
+-- Pooled ids (V9) come from blocks each node reserved earlier, while JDBC batch inserts take a fresh
+-- nextval, so ids no longer follow insertion order. Per-aggregate ordering moves to seq: a plain
+-- sequence taken by the column default in the INSERT itself (no extra round trip, one value per row).
+
+create sequence if not exists outbox_event_seq_seq;
+select setval('outbox_event_seq_seq', greatest((select coalesce(max(id), 0) from outbox_event), 1));
+
+-- No default while adding: existing rows are not rewritten. Only pending rows take part in ordering.
+alter table outbox_event add column seq bigint;
+update outbox_event set seq = id where status in ('NEW', 'FAILED');
+alter table outbox_event alter column seq set default nextval('outbox_event_seq_seq');
+alter sequence outbox_event_seq_seq owned by outbox_event.seq;
+
+drop index if exists idx_outbox_pending_aggregate;
+create index idx_outbox_pending_aggregate on outbox_event(aggregate_id, seq)
+    where status in ('NEW', 'FAILED');
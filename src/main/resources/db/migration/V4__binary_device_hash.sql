@@ -0,0 +1,12 @@
+-- Store device hashes as raw SHA-256 digests (bytea, 32 bytes) instead of 64-char hex strings.
+-- Halves the column width and shrinks the (user_id, device_hash) unique index accordingly.
+
+alter table trusted_device
+    alter column device_hash type bytea using decode(device_hash, 'hex');
+alter table trusted_device
+    add constraint chk_trusted_device_hash_len check (octet_length(device_hash) = 32);
+
+alter table risk_decision
+    alter column device_hash type bytea using decode(device_hash, 'hex');
+alter table risk_decision
+    add constraint chk_risk_decision_device_hash_len check (octet_length(device_hash) = 32);
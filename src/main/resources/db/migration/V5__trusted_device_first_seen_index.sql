@@ -0,0 +1,3 @@
+-- Supports incremental refresh of the in-process trusted-device Bloom filter
+-- (devices trusted by other nodes since the last refresh).
+create index if not exists idx_trusted_device_first_seen on trusted_device(first_seen_at);
@@ -0,0 +1,5 @@
+-- A batch authorize links several decisions to one shared step-up challenge;
+-- verification approves all of them by challenge id.
+create index if not exists idx_risk_decision_challenge
+    on risk_decision(step_up_challenge_id)
+    where step_up_challenge_id is not null;
@@ -0,0 +1,5 @@
+-- Sharded publishers keep per-aggregate order by skipping an event while an earlier one of the
+-- same aggregate is still pending; this index serves that lookup and the per-shard scan.
+create index if not exists idx_outbox_pending_aggregate
+    on outbox_event(aggregate_id, id)
+    where status in ('NEW', 'FAILED');
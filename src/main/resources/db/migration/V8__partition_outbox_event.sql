@@ -0,0 +1,71 @@
+-- Range-partitions outbox_event by created_at (one partition per UTC day).
+--
+-- * Published rows are removed by detaching and dropping whole partitions
+--   (OutboxPartitionMaintenance) instead of large DELETEs.
+-- * Publisher indexes are partial (NEW/FAILED only), so they stay small no
+--   matter how many PUBLISHED rows are retained.
+-- * Existing rows move to one "history" partition. It is dropped by retention
+--   once it is old enough and fully published.
+-- * The primary key must contain the partition key: (id, created_at).
+
+alter table outbox_event rename to outbox_event_legacy;
+alter index if exists outbox_event_pkey rename to outbox_event_legacy_pkey;
+drop index if exists idx_outbox_status_next_attempt;
+drop index if exists idx_outbox_created_at;
+drop index if exists idx_outbox_event_type_created;
+drop index if exists idx_outbox_pending_aggregate;
+
+create table outbox_event (
+    id bigint not null default nextval('outbox_event_id_seq'),
+    aggregate_id uuid not null,
+    event_type varchar(100) not null,
+    payload_json jsonb not null,
+    status varchar(20) not null,
+    attempts int not null default 0,
+    next_attempt_at timestamptz not null default now(),
+    created_at timestamptz not null default now(),
+    published_at timestamptz null,
+    last_error text null,
+    primary key (id, created_at)
+) partition by range (created_at);
+
+alter sequence outbox_event_id_seq owned by outbox_event.id;
+
+-- Safety net for rows outside every daily partition (should stay empty).
+create table outbox_event_default partition of outbox_event default;
+
+do $$
+declare
+    today date := (now() at time zone 'UTC')::date;
+    d date;
+begin
+    execute format(
+        'create table outbox_event_history partition of outbox_event for values from (minvalue) to (%L)',
+        (today::timestamp at time zone 'UTC'));
+    for i in 0..7 loop
+        d := today + i;
+        execute format(
+            'create table %I partition of outbox_event for values from (%L) to (%L)',
+            'outbox_event_p' || to_char(d, 'YYYYMMDD'),
+            (d::timestamp at time zone 'UTC'),
+            ((d + 1)::timestamp at time zone 'UTC'));
+    end loop;
+end $$;
+
+insert into outbox_event (id, aggregate_id, event_type, payload_json, status, attempts,
+                          next_attempt_at, created_at, published_at, last_error)
+select id, aggregate_id, event_type, payload_json, status, attempts,
+       next_attempt_at, created_at, published_at, last_error
+from outbox_event_legacy;
+
+drop table outbox_event_legacy;
+
+-- Publisher: due scan and per-aggregate ordering check, pending rows only.
+create index idx_outbox_pending_due on outbox_event(next_attempt_at, id)
+    where status in ('NEW', 'FAILED');
+create index idx_outbox_pending_aggregate on outbox_event(aggregate_id, id)
+    where status in ('NEW', 'FAILED');
+
+-- Admin lists.
+create index idx_outbox_created_at on outbox_event(created_at desc, id desc);
+create index idx_outbox_event_type_created on outbox_event(event_type, created_at desc);
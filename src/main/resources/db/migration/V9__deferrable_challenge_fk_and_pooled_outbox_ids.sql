@@ -0,0 +1,8 @@
+-- Challenge -> decision FK is checked at commit, so the decision and its challenge can be
+-- inserted in one JDBC flush in any order (no saveAndFlush of the decision first).
+alter table step_up_challenge
+    alter constraint step_up_challenge_decision_id_fkey deferrable initially deferred;
+
+-- Hibernate pooled optimizer (allocationSize = 50): one nextval reserves 50 outbox ids,
+-- which lets outbox inserts be JDBC-batched (IDENTITY disables insert batching).
+alter sequence outbox_event_id_seq increment by 50;
@@ -0,0 +1,17 @@
+-- Atomic OTP verification (one round trip).
+-- KEYS[1] = otp:h:<challengeId> (hash: code, attempts)
+-- ARGV[1] = submitted code, ARGV[2] = max attempts
+-- Returns: 0 OK (key deleted), -1 GONE (expired/consumed), -2 LOCKED, -3 UNAUTHORIZED
+local expected = redis.call('HGET', KEYS[1], 'code')
+if not expected then
+    return -1
+end
+local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+if attempts > tonumber(ARGV[2]) then
+    return -2
+end
+if expected ~= ARGV[1] then
+    return -3
+end
+redis.call('DEL', KEYS[1])
+return 0
@@ -0,0 +1,69 @@
+-- Velocity counters in minute rings (one round trip).
+-- KEYS[1] = vel:{<userId>}            60-slot ring: t<slot> = minute, c<slot> = count, a<slot> = amount (cents)
+-- KEYS[2] = vel:{<userId>}:d:<device> 10-slot ring: t<slot> = minute, c<slot> = count
+-- ARGV[1] = current epoch minute, ARGV[2] = amount in cents, ARGV[3] = key TTL (ms)
+-- Slot = minute % ring size. A slot counts only while its t field matches the minute being read, and it
+-- is reset when a later minute claims it, so a hash never holds more than 3 * 60 fields however long
+-- the gaps between requests are.
+-- Returns {count1m, count10m, count60m, cents10m, cents60m, deviceCount10m}
+local m = tonumber(ARGV[1])
+
+-- Claims the slot of minute m, zeroing it when it still holds an older minute.
+local function claim(key, size, hasAmount)
+    local s = m % size
+    if tonumber(redis.call('HGET', key, 't' .. s) or '-1') ~= m then
+        if hasAmount then
+            redis.call('HSET', key, 't' .. s, m, 'c' .. s, 0, 'a' .. s, 0)
+        else
+            redis.call('HSET', key, 't' .. s, m, 'c' .. s, 0)
+        end
+    end
+    return s
+end
+
+local us = claim(KEYS[1], 60, true)
+redis.call('HINCRBY', KEYS[1], 'c' .. us, 1)
+redis.call('HINCRBY', KEYS[1], 'a' .. us, ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+
+local ds = claim(KEYS[2], 10, false)
+redis.call('HINCRBY', KEYS[2], 'c' .. ds, 1)
+redis.call('PEXPIRE', KEYS[2], ARGV[3])
+
+local fields = {}
+for i = 0, 59 do
+    local s = (m - i) % 60
+    fields[#fields + 1] = 't' .. s
+    fields[#fields + 1] = 'c' .. s
+    fields[#fields + 1] = 'a' .. s
+end
+local u = redis.call('HMGET', KEYS[1], unpack(fields))
+
+local dfields = {}
+for i = 0, 9 do
+    local s = (m - i) % 10
+    dfields[#dfields + 1] = 't' .. s
+    dfields[#dfields + 1] = 'c' .. s
+end
+local d = redis.call('HMGET', KEYS[2], unpack(dfields))
+
+local c1, c10, c60, a10, a60, d10 = 0, 0, 0, 0, 0, 0
+for i = 0, 59 do
+    if tonumber(u[3 * i + 1] or '-1') == m - i then
+        local c = tonumber(u[3 * i + 2] or '0')
+        local a = tonumber(u[3 * i + 3] or '0')
+        if i < 1 then
+            c1 = c1 + c
+        end
+        if i < 10 then
+            c10 = c10 + c
+            a10 = a10 + a
+        end
+        c60 = c60 + c
+        a60 = a60 + a
+    end
+    if i < 10 and tonumber(d[2 * i + 1] or '-1') == m - i then
+        d10 = d10 + tonumber(d[2 * i + 2] or '0')
+    end
+end
+return {c1, c10, c60, a10, a60, d10}
@@ -0,0 +1,80 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.api;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.ExportProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.export.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class AdminExportControllerTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(7);
+
+    private final ExportService exports = mock(ExportService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        var props = new ExportProperties(100, 1000, 1, TIMEOUT);
+        mvc = MockMvcBuilders.standaloneSetup(new AdminExportController(exports, props)).build();
+    }
+
+    @Test
+    void streamsWithItsOwnTimeoutAndReleasesTheSlot() throws Exception {
+        when(exports.exportDecisions(any(), any(), any())).thenAnswer(inv -> {
+            inv.<OutputStream>getArgument(2).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult started = mvc.perform(get("/api/admin/exports/risk-decisions"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(TIMEOUT.toMillis());
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"risk-decisions.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n"));
+
+        verify(exports).acquire();
+        verify(exports, times(1)).release();
+    }
+
+    @Test
+    void releasesTheSlotWhenTheExportFails() throws Exception {
+        doThrow(new IOException("client went away")).when(exports).exportOutbox(any(), any(), any());
+
+        MvcResult started = mvc.perform(get("/api/admin/exports/outbox"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult();
+        try {
+            mvc.perform(asyncDispatch(started));
+        } catch (Exception expected) {
+            // No exception handler in a standalone setup: the failure surfaces here, before MockMvc
+            // completes the async context as the container would.
+            started.getRequest().getAsyncContext().complete();
+        }
+
+        verify(exports, times(1)).release();
+    }
+}
@@ -3,9 +3,12 @@ package com.github.dimitryivaniuta.gateway.stepupauth.it;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.dimitryivaniuta.gateway.stepupauth.service.outbox.OutboxPublisher;
+import jakarta.persistence.EntityManagerFactory;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -40,6 +43,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *   <li>Runs with Testcontainers (Postgres + Redis + Kafka).</li>
  *   <li>Disables scheduling to avoid flakiness; triggers outbox publishing explicitly.</li>
  *   <li>Uses OTP preview if enabled, otherwise falls back to Redis.</li>
+ *   <li>Counts the JDBC statements Hibernate prepares for the authorize call (statistics on).</li>
  * </ul>
  */
 @Testcontainers
@@ -80,12 +84,18 @@ class StepUpFlowIT {
     @Autowired
     private OutboxPublisher outboxPublisher;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private static KafkaConsumer<String, String> consumer;
 
     @DynamicPropertySource
     static void props(DynamicPropertyRegistry r) {
         // Make the test deterministic: outbox publish is triggered manually.
         r.add("spring.task.scheduling.enabled", () -> "false");
+        // No NOTIFY-triggered runs either: their queries would land in the statement count.
+        r.add("app.outbox.notify.enabled", () -> false);
+        r.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
 
         r.add("spring.datasource.url", postgres::getJdbcUrl);
         r.add("spring.datasource.username", postgres::getUsername);
@@ -152,6 +162,8 @@ class StepUpFlowIT {
         assertThat(token).isNotBlank();
 
         // 3) Authorize (risky) -> expects step-up
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
         String authzJson = mvc.perform(post("/api/transactions/authorize")
                         .header("Authorization", "Bearer " + token)
                         .header("X-Device-Id", "device-new-999")
@@ -166,13 +178,18 @@ class StepUpFlowIT {
         JsonNode authz = mapper.readTree(authzJson);
         assertThat(authz.get("decision").asText()).isEqualTo("STEP_UP_REQUIRED");
 
+        // Country profile lookup (unknown device per the Bloom filter), at most one pooled outbox nextval,
+        // then one batched flush: decision insert, challenge insert, 2-row outbox insert.
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+
         String challengeId = authz.get("challengeId").asText();
         assertThat(challengeId).isNotBlank();
 
         // Prefer response preview if available (dev-preview mode), fallback to Redis.
         String otp = authz.path("otpPreview").asText("");
         if (otp.isBlank()) {
-            otp = redisTemplate.opsForValue().get("otp:" + challengeId);
+            Object stored = redisTemplate.opsForHash().get("otp:h:" + challengeId, "code");
+            otp = stored == null ? "" : stored.toString();
         }
         assertThat(otp).isNotBlank();
 
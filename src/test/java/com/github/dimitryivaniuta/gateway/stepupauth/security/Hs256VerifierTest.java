@@ -0,0 +1,135 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link Hs256Verifier}: every token gets the same outcome as the JJWT-only path.
+ */
+class Hs256VerifierTest {
+
+    private static final String ISSUER = "stepup-auth-service";
+    private static final String SECRET = "unit-test-secret-unit-test-secret-0123456789";
+    private static final Base64.Encoder B64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtService fast = jwtService(SECRET, Duration.ofMinutes(15), true);
+    private final JwtService jjwt = jwtService(SECRET, Duration.ofMinutes(15), false);
+    private final Hs256Verifier verifier = (Hs256Verifier) ReflectionTestUtils.getField(fast, "fastVerifier");
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void acceptsValidToken() {
+        String token = fast.issueToken(userId, "alice", List.of("USER", "ADMIN"));
+
+        VerifiedJwt verified = verifier.verify(token);
+
+        assertThat(verified).isNotNull();
+        assertThat(verified.principal()).isEqualTo(new JwtPrincipal(userId, "alice", List.of("USER", "ADMIN")));
+        assertThat(verified).isEqualTo(jjwt.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = fast.issueToken(userId, "alice", List.of("USER"));
+        int sig = token.lastIndexOf('.') + 1;
+        String tampered = token.substring(0, sig) + (token.charAt(sig) == 'A' ? 'B' : 'A') + token.substring(sig + 1);
+
+        assertThatThrownBy(() -> verifier.verify(tampered)).isInstanceOf(JwtException.class);
+        assertBothReject(tampered);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = fast.issueToken(userId, "alice", List.of("USER"));
+        String[] parts = token.split("\\.");
+        String payload = b64("{\"iss\":\"" + ISSUER + "\",\"sub\":\"" + userId
+                + "\",\"exp\":4102444800,\"username\":\"alice\",\"roles\":[\"USER\",\"ADMIN\"]}");
+        String forged = parts[0] + "." + payload + "." + parts[2];
+
+        assertThatThrownBy(() -> verifier.verify(forged)).isInstanceOf(JwtException.class);
+        assertBothReject(forged);
+    }
+
+    @Test
+    void leavesOtherAlgorithmsToJjwt() {
+        String token = fast.issueToken(userId, "alice", List.of("USER"));
+        String[] parts = token.split("\\.");
+        String none = b64("{\"alg\":\"none\"}") + "." + parts[1] + ".";
+        String hs512 = b64("{\"alg\":\"HS512\"}") + "." + parts[1] + "." + parts[2];
+
+        assertThat(verifier.verify(none)).isNull();
+        assertThat(verifier.verify(hs512)).isNull();
+        assertBothReject(none);
+        assertBothReject(hs512);
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = jwtService(SECRET, Duration.ofMinutes(-1), true).issueToken(userId, "alice", List.of("USER"));
+
+        assertThatThrownBy(() -> verifier.verify(token))
+                .isInstanceOf(JwtException.class)
+                .hasMessageContaining("expired");
+        assertBothReject(token);
+    }
+
+    @Test
+    void leavesMalformedBase64ToJjwt() {
+        String token = fast.issueToken(userId, "alice", List.of("USER"));
+        String signingInput = token.substring(0, token.indexOf('.')) + ".%%not-base64%%";
+        String malformed = signingInput + "." + B64URL.encodeToString(hmac(signingInput));
+
+        assertThat(verifier.verify(malformed)).isNull();
+        assertBothReject(malformed);
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String token = jwtService("another-secret-another-secret-0123456789", Duration.ofMinutes(15), true)
+                .issueToken(userId, "alice", List.of("USER"));
+
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(JwtException.class);
+        assertBothReject(token);
+    }
+
+    private void assertBothReject(String token) {
+        assertThatThrownBy(() -> fast.verify(token)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jjwt.verify(token)).isInstanceOf(JwtException.class);
+    }
+
+    private static String b64(String json) {
+        return B64URL.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] hmac(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JwtService jwtService(String secret, Duration ttl, boolean fastVerify) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "issuer", ISSUER);
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "ttl", ttl);
+        ReflectionTestUtils.setField(service, "fastVerify", fastVerify);
+        service.init();
+        return service;
+    }
+}
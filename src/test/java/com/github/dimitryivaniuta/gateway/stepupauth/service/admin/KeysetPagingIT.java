@@ -0,0 +1,129 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.admin;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.dto.CursorPage;
+import com.github.dimitryivaniuta.gateway.stepupauth.domain.OutboxEventEntity;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.DecisionBatchWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paging through rows that share {@code created_at}: page boundaries inside a tie must neither skip nor
+ * repeat a row, for UUID ids (risk decisions) and pooled bigint ids (outbox).
+ */
+@Testcontainers
+@SpringBootTest
+class KeysetPagingIT {
+
+    private static final int PAGE = 2;
+
+    @SuppressWarnings("resource")
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+                    .withDatabaseName("stepup")
+                    .withUsername("stepup")
+                    .withPassword("stepup");
+
+    @SuppressWarnings("resource")
+    @Container
+    static GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7"))
+                    .withExposedPorts(6379);
+
+    @MockitoBean
+    private KafkaTemplate<String, String> kafka;
+
+    @Autowired
+    private AdminQueryService queries;
+
+    @Autowired
+    private DecisionBatchWriter batchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.task.scheduling.enabled", () -> "false");
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+        r.add("spring.data.redis.host", redis::getHost);
+        r.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        r.add("spring.kafka.admin.auto-create", () -> false);
+    }
+
+    @Test
+    void pagesRiskDecisionsThroughTies() {
+        UUID user = UUID.randomUUID();
+        jdbc.update("insert into app_user(id, username, password_hash) values (?, ?, 'x')", user, "paging-" + user);
+        Instant tie = Instant.parse("2026-03-01T10:00:00.123456Z");
+        for (int i = 0; i < 5; i++) {
+            insertDecision(user, tie);
+        }
+        insertDecision(user, tie.plusNanos(1_000));
+        insertDecision(user, tie.minusSeconds(1));
+
+        List<String> paged = collect(cursor -> queries.listRiskDecisions(PAGE, cursor), d -> d.id().toString());
+
+        assertThat(paged).hasSize(7).containsExactlyElementsOf(jdbc.queryForList(
+                "select id::text from risk_decision order by created_at desc, id desc", String.class));
+    }
+
+    @Test
+    void pagesOutboxEventsThroughTies() {
+        String type = "PAGING_TIE_" + UUID.randomUUID();
+        Instant tie = Instant.parse("2026-03-01T10:00:00.123456Z");
+        List<OutboxEventEntity> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(DecisionBatchWriter.outboxRow(UUID.randomUUID(), type, "{}", tie));
+        }
+        rows.add(DecisionBatchWriter.outboxRow(UUID.randomUUID(), type, "{}", tie.minusSeconds(1)));
+        batchWriter.insertOutbox(rows);
+
+        List<Long> paged = collect(cursor -> queries.listOutbox(type, PAGE, cursor), e -> e.id());
+
+        assertThat(paged).hasSize(6).containsExactlyElementsOf(jdbc.queryForList(
+                "select id from outbox_event where event_type = ? order by created_at desc, id desc", Long.class, type));
+    }
+
+    private static <T, K> List<K> collect(Function<String, CursorPage<T>> page, Function<T, K> key) {
+        List<K> keys = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<T> p = page.apply(cursor);
+            assertThat(p.items()).hasSizeLessThanOrEqualTo(PAGE);
+            p.items().forEach(item -> keys.add(key.apply(item)));
+            cursor = p.nextCursor();
+        } while (cursor != null);
+        return keys;
+    }
+
+    private void insertDecision(UUID user, Instant createdAt) {
+        jdbc.update("""
+                insert into risk_decision(id, user_id, action_type, amount, device_hash, country, risk_score,
+                                          risk_level, decision, step_up_required, created_at)
+                values (?, ?, 'PAYMENT', 10.00, ?, 'DE', 0, 'LOW', 'ALLOW', false, ?)""",
+                UUID.randomUUID(), user, new byte[32], Timestamp.from(createdAt));
+    }
+}
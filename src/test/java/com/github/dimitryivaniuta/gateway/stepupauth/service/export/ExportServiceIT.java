@@ -0,0 +1,114 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.ExportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset-chunked exports against a real Postgres: chunk boundaries that fall inside a run of equal
+ * {@code created_at} values must neither skip nor repeat a row.
+ */
+@Testcontainers
+class ExportServiceIT {
+
+    private static final int CHUNK = 3;
+
+    @SuppressWarnings("resource")
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+                    .withDatabaseName("stepup")
+                    .withUsername("stepup")
+                    .withPassword("stepup");
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static JdbcTemplate jdbc;
+    private static ExportService exports;
+
+    @BeforeAll
+    static void setup() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        var dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        exports = new ExportService(new ExportProperties(2, CHUNK, 1, Duration.ofMinutes(1)), dataSource,
+                new DataSourceTransactionManager(dataSource), mapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void chunksThroughTiesOnCreatedAtWithoutSkippingOrRepeating() throws Exception {
+        UUID user = UUID.randomUUID();
+        jdbc.update("insert into app_user(id, username, password_hash) values (?, ?, 'x')", user, "export-" + user);
+        Instant tie = Instant.parse("2026-03-01T10:00:00.123456Z");
+        for (int i = 0; i < 8; i++) {
+            insertDecision(user, tie);
+        }
+        insertDecision(user, tie.minusNanos(1_000));
+        insertDecision(user, tie.plusNanos(1_000));
+        insertDecision(user, tie.plusSeconds(1));
+
+        var out = new ByteArrayOutputStream();
+        long written = exports.exportDecisions(new DecisionExportFilter(null, null, user, null, null),
+                ExportFormat.NDJSON, out);
+
+        List<String> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            ids.add(mapper.readTree(line).get("id").asText());
+        }
+        List<String> expected = jdbc.queryForList(
+                "select id::text from risk_decision where user_id = ? order by created_at, id", String.class, user);
+        assertThat(expected).hasSize(11);
+        assertThat(written).isEqualTo(11);
+        assertThat(ids).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void limitsConcurrentExportsUntilASlotIsReleased() {
+        exports.acquire();
+        try {
+            assertThatThrownBy(exports::acquire)
+                    .isInstanceOfSatisfying(ApiException.class,
+                            e -> assertThat(e.status()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        } finally {
+            exports.release();
+        }
+        exports.acquire();
+        exports.release();
+    }
+
+    private static void insertDecision(UUID user, Instant createdAt) {
+        jdbc.update("""
+                insert into risk_decision(id, user_id, action_type, amount, device_hash, country, risk_score,
+                                          risk_level, decision, step_up_required, created_at)
+                values (?, ?, 'PAYMENT', 10.00, ?, 'DE', 0, 'LOW', 'ALLOW', false, ?)""",
+                UUID.randomUUID(), user, new byte[32], Timestamp.from(createdAt));
+    }
+}
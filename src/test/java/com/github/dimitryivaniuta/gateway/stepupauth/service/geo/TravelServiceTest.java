@@ -0,0 +1,68 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.geo;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.TravelProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TravelServiceTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long HOUR = 3_600_000L;
+
+    private final TravelService travel = service(true);
+
+    @Test
+    void bundledCentroidsResolveCaseInsensitively() throws Exception {
+        CountryDistances distances;
+        try (var in = getClass().getClassLoader().getResourceAsStream(TravelService.CENTROIDS)) {
+            distances = CountryDistances.load(in);
+        }
+
+        assertThat(distances.km("de", "BR")).isEqualTo(distances.km("BR", "DE")).isBetween(9_000, 10_500);
+        assertThat(distances.km("DE", "DE")).isZero();
+        assertThat(distances.km("DE", "XX")).isEqualTo(CountryDistances.UNKNOWN);
+        assertThat(distances.km("DE", "D1")).isEqualTo(CountryDistances.UNKNOWN);
+    }
+
+    @Test
+    void pairsUnderTheMinimumDistanceAreIgnored() {
+        // DE -> NL is roughly 400 km between centroids, under the 500 km floor.
+        assertThat(travel.signals("DE", at(NOW - 1), "NL", NOW)).isZero();
+    }
+
+    @Test
+    void flagsDeToBrWithinAnHour() {
+        assertThat(travel.signals("DE", at(NOW - HOUR), "BR", NOW)).isEqualTo(RiskSignal.IMPOSSIBLE_TRAVEL.bit());
+        // Twelve hours is a plausible flight.
+        assertThat(travel.signals("DE", at(NOW - 12 * HOUR), "BR", NOW)).isZero();
+    }
+
+    @Test
+    void unknownCodesAndMissingHistoryAreNotFlagged() {
+        assertThat(travel.signals("DE", at(NOW - 1), "XX", NOW)).isZero();
+        assertThat(travel.signals("ZZ", at(NOW - 1), "BR", NOW)).isZero();
+        assertThat(travel.signals(null, null, "BR", NOW)).isZero();
+    }
+
+    @Test
+    void disabledNeverFlags() {
+        assertThat(service(false).signals("DE", at(NOW - 1), "BR", NOW)).isZero();
+    }
+
+    private static TravelService service(boolean enabled) {
+        try {
+            return new TravelService(new TravelProperties(enabled, 1000, 500));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Instant at(long millis) {
+        return Instant.ofEpochMilli(millis);
+    }
+}
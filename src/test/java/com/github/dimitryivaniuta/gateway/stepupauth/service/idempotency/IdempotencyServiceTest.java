@@ -0,0 +1,105 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link IdempotencyService} on a single node (Redis sharing off).
+ */
+class IdempotencyServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IdempotencyService service = new IdempotencyService(
+            new IdempotencyProperties(true, Duration.ofHours(1), 1000, false, Duration.ofSeconds(5),
+                    Duration.ofMinutes(5)),
+            null, new ObjectMapper(), registry);
+    private final UUID user = UUID.randomUUID();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void replaysTheFirstResponse() {
+        String first = service.execute(user, "authorize", "k1", Map.of("amount", 10), String.class,
+                () -> "response-" + runs.incrementAndGet());
+        String second = service.execute(user, "authorize", "k1", Map.of("amount", 10), String.class,
+                () -> "response-" + runs.incrementAndGet());
+
+        assertThat(second).isEqualTo(first).isEqualTo("response-1");
+        assertThat(runs).hasValue(1);
+        assertThat(count("replayed_local")).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectsTheSameKeyForADifferentRequest() {
+        service.execute(user, "authorize", "k1", Map.of("amount", 10), String.class, () -> "ok");
+
+        assertThatThrownBy(() -> service.execute(user, "authorize", "k1", Map.of("amount", 11), String.class,
+                () -> "other"))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.status()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(count("fingerprint_mismatch")).isEqualTo(1.0);
+    }
+
+    @Test
+    void duplicateJoinsTheRunningRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() ->
+                service.execute(user, "verify", "k2", Map.of("otp", "123456"), String.class, () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "verified";
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute(user, "verify", "k2", Map.of("otp", "123456"), String.class, () -> {
+                    runs.incrementAndGet();
+                    return "again";
+                }));
+        while (count("joined_in_flight") == 0.0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS)).isEqualTo("verified");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("verified");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedRequestIsNotRemembered() {
+        assertThatThrownBy(() -> service.execute(user, "authorize", "k3", Map.of(), String.class, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(service.execute(user, "authorize", "k3", Map.of(), String.class, () -> "ok")).isEqualTo("ok");
+    }
+
+    private double count(String result) {
+        return registry.get("idempotency.requests").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
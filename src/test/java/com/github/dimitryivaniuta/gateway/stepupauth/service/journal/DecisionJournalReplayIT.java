@@ -0,0 +1,91 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.journal;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.DecisionBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replaying a journal whose checkpoint lags behind Postgres (crash between commit and checkpoint)
+ * inserts only the decisions that are missing.
+ */
+@Testcontainers
+class DecisionJournalReplayIT {
+
+    @SuppressWarnings("resource")
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+                    .withDatabaseName("stepup")
+                    .withUsername("stepup")
+                    .withPassword("stepup");
+
+    private static final UUID USER = UUID.randomUUID();
+
+    private static JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void setup() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        jdbc.update("insert into app_user (id, username, password_hash) values (?, ?, ?)", USER, "journal", "x");
+    }
+
+    @Test
+    void replayInsertsOnlyMissingDecisions() throws Exception {
+        DecisionBatchWriter writer = new DecisionBatchWriter(jdbc);
+        List<JournaledDecision> written = List.of(decision(1), decision(2), decision(3));
+
+        DecisionJournal journal = new DecisionJournal(dir, 64 * 1024, new SimpleMeterRegistry().timer("fsync"));
+        for (JournaledDecision d : written) {
+            assertThat(journal.awaitDurable(journal.append(d.encode()), Duration.ofSeconds(5))).isTrue();
+        }
+        // The first two reached Postgres, but the process died before releasing them.
+        writer.insertNewDecisions(written.subList(0, 2).stream().map(JournaledDecision::toEntity).toList());
+        journal.close();
+
+        DecisionJournal reopened = new DecisionJournal(dir, 64 * 1024, new SimpleMeterRegistry().timer("fsync"));
+        List<DecisionJournal.Entry> recovered = reopened.recovered();
+        assertThat(recovered).hasSize(3);
+
+        var inserted = writer.insertNewDecisions(recovered.stream().map(e -> e.decision().toEntity()).toList());
+        reopened.close();
+
+        assertThat(inserted).containsExactly(written.get(2).id());
+        assertThat(jdbc.queryForObject("select count(*) from risk_decision where user_id = ?", Long.class, USER))
+                .isEqualTo(3L);
+    }
+
+    private static JournaledDecision decision(int n) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) n;
+        return new JournaledDecision(UUID.randomUUID(), USER, "TRANSFER", new BigDecimal("12.50"), hash, "US",
+                10, "LOW", Instant.now().truncatedTo(ChronoUnit.MICROS), "{\"n\":" + n + "}");
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.journal;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DecisionJournal} and {@link JournaledDecision} against a temp directory.
+ */
+class DecisionJournalTest {
+
+    private static final long SEGMENT = 64 * 1024;
+    private static final UUID USER = UUID.randomUUID();
+
+    private final Timer fsync = new SimpleMeterRegistry().timer("fsync");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        JournaledDecision d = decision(1);
+
+        JournaledDecision decoded = JournaledDecision.decode(ByteBuffer.wrap(d.encode()));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(d);
+    }
+
+    @Test
+    void recoversEverythingWhenNothingWasCheckpointed() throws Exception {
+        List<JournaledDecision> written = new ArrayList<>();
+        DecisionJournal journal = new DecisionJournal(dir, SEGMENT, fsync);
+        for (int i = 0; i < 3; i++) {
+            written.add(decision(i));
+            appendDurable(journal, written.get(i));
+        }
+        journal.close();
+
+        DecisionJournal reopened = new DecisionJournal(dir, SEGMENT, fsync);
+        assertThat(ids(reopened.recovered()))
+                .containsExactlyElementsOf(written.stream().map(JournaledDecision::id).toList());
+        reopened.close();
+    }
+
+    @Test
+    void checkpointReplaysFromTheFirstUnreleasedRecord() throws Exception {
+        DecisionJournal journal = new DecisionJournal(dir, SEGMENT, fsync);
+        JournaledDecision a = decision(1);
+        JournaledDecision b = decision(2);
+        JournaledDecision c = decision(3);
+        long pa = appendDurable(journal, a);
+        appendDurable(journal, b);
+        long pc = appendDurable(journal, c);
+        journal.release(pa);
+        journal.release(pc);
+        journal.checkpoint();
+        journal.close();
+
+        // c was released but lies after b: replay starts at b and relies on idempotent inserts for c.
+        DecisionJournal reopened = new DecisionJournal(dir, SEGMENT, fsync);
+        assertThat(ids(reopened.recovered())).containsExactly(b.id(), c.id());
+
+        for (DecisionJournal.Entry e : reopened.recovered()) {
+            reopened.release(e.position());
+        }
+        reopened.checkpoint();
+        reopened.close();
+
+        DecisionJournal clean = new DecisionJournal(dir, SEGMENT, fsync);
+        assertThat(clean.recovered()).isEmpty();
+        clean.close();
+    }
+
+    @Test
+    void rollsSegmentsAndRecoversAcrossThem() throws Exception {
+        int recordSize = 8 + decision(0).encode().length;
+        DecisionJournal journal = new DecisionJournal(dir, recordSize * 2L, fsync);
+        List<JournaledDecision> written = new ArrayList<>();
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            written.add(decision(i));
+            positions.add(appendDurable(journal, written.get(i)));
+        }
+        journal.close();
+
+        assertThat(positions).isSorted();
+        assertThat(positions.get(4) >>> 32).isEqualTo((positions.get(0) >>> 32) + 2);
+
+        DecisionJournal reopened = new DecisionJournal(dir, recordSize * 2L, fsync);
+        assertThat(ids(reopened.recovered()))
+                .containsExactlyElementsOf(written.stream().map(JournaledDecision::id).toList());
+        reopened.close();
+    }
+
+    @Test
+    void stopsAtATornRecord() throws Exception {
+        DecisionJournal journal = new DecisionJournal(dir, SEGMENT, fsync);
+        JournaledDecision a = decision(1);
+        JournaledDecision b = decision(2);
+        appendDurable(journal, a);
+        appendDurable(journal, b);
+        long pc = appendDurable(journal, decision(3));
+        journal.close();
+
+        // Flip one payload byte of the last record: its CRC no longer matches.
+        Path segment = dir.resolve(String.format("%016d.seg", pc >>> 32));
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long at = (int) pc + 8;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            ch.read(one, at);
+            one.put(0, (byte) ~one.get(0)).rewind();
+            ch.write(one, at);
+        }
+
+        DecisionJournal reopened = new DecisionJournal(dir, SEGMENT, fsync);
+        assertThat(ids(reopened.recovered())).containsExactly(a.id(), b.id());
+        reopened.close();
+    }
+
+    private static long appendDurable(DecisionJournal journal, JournaledDecision d)
+            throws IOException, InterruptedException {
+        long pos = journal.append(d.encode());
+        assertThat(journal.awaitDurable(pos, Duration.ofSeconds(5))).isTrue();
+        return pos;
+    }
+
+    private static List<UUID> ids(List<DecisionJournal.Entry> entries) {
+        return entries.stream().map(e -> e.decision().id()).toList();
+    }
+
+    static JournaledDecision decision(int n) {
+        byte[] hash = new byte[32];
+        Arrays.fill(hash, (byte) n);
+        return new JournaledDecision(UUID.randomUUID(), USER, "TRANSFER", new BigDecimal("12.50"), hash, "US",
+                10, "LOW", Instant.parse("2026-10-17T10:00:00.123456Z").plusSeconds(n), "{\"n\":" + n + "}");
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency tests for {@link OtpService#verify(UUID, String)} against a real Redis.
+ *
+ * <p>Many threads hit one challenge at the same instant; every {@link OtpStore} backend must let exactly
+ * one correct submission through and never allow more than {@code max-attempts} comparisons.</p>
+ */
+@Testcontainers
+class OtpServiceConcurrencyIT {
+
+    private static final int THREADS = 64;
+    private static final int MAX_ATTEMPTS = 5;
+
+    @SuppressWarnings("resource")
+    @Container
+    static GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7"))
+                    .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static OtpService redisBacked;
+    private static OtpService memoryBacked;
+    private static InMemoryOtpStore memoryStore;
+
+    @BeforeAll
+    static void setup() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisBacked = otpService(new RedisHashOtpStore(new StringRedisTemplate(connectionFactory)));
+        memoryStore = new InMemoryOtpStore();
+        memoryBacked = otpService(memoryStore);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        memoryStore.shutdown();
+        connectionFactory.destroy();
+    }
+
+    static Stream<String> backends() {
+        return Stream.of("redis", "memory");
+    }
+
+    private static OtpService otpService(OtpStore store) {
+        OtpService service = new OtpService(store);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(service, "maxAttempts", MAX_ATTEMPTS);
+        return service;
+    }
+
+    private static OtpService backend(String name) {
+        return "redis".equals(name) ? redisBacked : memoryBacked;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("backends")
+    void concurrentCorrectSubmissions_onlyOneSucceeds(String backend) throws Exception {
+        OtpService otp = backend(backend);
+        UUID challengeId = UUID.randomUUID();
+        String code = otp.generateAndStore(challengeId);
+
+        Map<String, AtomicInteger> outcomes = hammer(otp, challengeId, i -> code);
+
+        assertThat(outcomes.get("OK")).hasValue(1);
+        assertThat(outcomes.get(HttpStatus.GONE.name())).hasValue(THREADS - 1);
+        assertThat(otp.peek(challengeId)).isNull();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("backends")
+    void concurrentWrongSubmissions_areCappedAtMaxAttempts(String backend) throws Exception {
+        OtpService otp = backend(backend);
+        UUID challengeId = UUID.randomUUID();
+        String code = otp.generateAndStore(challengeId);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        Map<String, AtomicInteger> outcomes = hammer(otp, challengeId, i -> wrong);
+
+        assertThat(outcomes.get(HttpStatus.UNAUTHORIZED.name())).hasValue(MAX_ATTEMPTS);
+        assertThat(outcomes.get(HttpStatus.LOCKED.name())).hasValue(THREADS - MAX_ATTEMPTS);
+
+        // Locked for good: even the right code is refused now.
+        ApiException ex = catchApi(() -> otp.verify(challengeId, code));
+        assertThat(ex).isNotNull();
+        assertThat(ex.status()).isEqualTo(HttpStatus.LOCKED);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("backends")
+    void mixedSubmissions_neverMoreThanOneSuccess(String backend) throws Exception {
+        OtpService otp = backend(backend);
+        UUID challengeId = UUID.randomUUID();
+        String code = otp.generateAndStore(challengeId);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        Map<String, AtomicInteger> outcomes = hammer(otp, challengeId, i -> i % 2 == 0 ? code : wrong);
+
+        assertThat(outcomes.get("OK").get()).isLessThanOrEqualTo(1);
+        assertThat(outcomes.get(HttpStatus.UNAUTHORIZED.name()).get()).isLessThanOrEqualTo(MAX_ATTEMPTS);
+    }
+
+    private interface CodeForThread {
+        String code(int thread);
+    }
+
+    private static Map<String, AtomicInteger> hammer(OtpService otp, UUID challengeId, CodeForThread codes) throws Exception {
+        Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        for (String k : List.of("OK", HttpStatus.GONE.name(), HttpStatus.LOCKED.name(), HttpStatus.UNAUTHORIZED.name())) {
+            outcomes.put(k, new AtomicInteger());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    ApiException ex = catchApi(() -> otp.verify(challengeId, codes.code(thread)));
+                    outcomes.get(ex == null ? "OK" : ex.status().name()).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return outcomes;
+    }
+
+    private static ApiException catchApi(Runnable call) {
+        try {
+            call.run();
+            return null;
+        } catch (ApiException ex) {
+            return ex;
+        }
+    }
+}
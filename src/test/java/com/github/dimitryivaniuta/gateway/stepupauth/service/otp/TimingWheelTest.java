@@ -0,0 +1,97 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.otp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TimingWheel}, driven by a synthetic clock.
+ *
+ * <p>Two levels of 4 slots at 1s ticks: level 0 spans 4 ticks, level 1 spans 16; later deadlines are
+ * parked.</p>
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 1_000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK, 2, 2, T0);
+
+    @Test
+    void firesOnTheDeadlineTickNeverEarly() {
+        wheel.schedule("a", T0 + 2_500);
+
+        assertThat(wheel.advance(T0 + 2_999)).isEmpty();
+        assertThat(wheel.advance(T0 + 3_000)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesFromTheUpperLevel() {
+        wheel.schedule("b", T0 + 10 * TICK);
+
+        assertThat(firingTick("b", 30)).isEqualTo(10);
+    }
+
+    @Test
+    void firesOnTimeWhenTheDeadlineIsALevelBoundary() {
+        // Tick 8 is where level-1 slot 2 cascades: the timer is due in the tick it comes down.
+        wheel.schedule("edge", T0 + 8 * TICK);
+
+        assertThat(firingTick("edge", 30)).isEqualTo(8);
+    }
+
+    @Test
+    void cascadesWhenAdvancedInOneJump() {
+        wheel.schedule("b", T0 + 10 * TICK);
+        wheel.schedule("c", T0 + 13 * TICK);
+
+        assertThat(wheel.advance(T0 + 12 * TICK)).containsExactly("b");
+        assertThat(wheel.advance(T0 + 13 * TICK)).containsExactly("c");
+    }
+
+    @Test
+    void parksDeadlinesBeyondTheTopLevel() {
+        wheel.schedule("far", T0 + 40 * TICK);
+        wheel.schedule("farther", T0 + 75 * TICK);
+
+        assertThat(firingTick("far", 100)).isEqualTo(40);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(T0 + 200 * TICK)).containsExactly("farther");
+    }
+
+    @Test
+    void reStoreWithLaterDeadlineFiresAgainAtTheNewDeadline() {
+        wheel.schedule("k", T0 + 3 * TICK);
+        wheel.advance(T0 + TICK);
+        wheel.schedule("k", T0 + 20 * TICK);
+        assertThat(wheel.size()).isEqualTo(2);
+
+        // The stale timer still fires; callers check their own deadline (see InMemoryOtpStore.expire).
+        assertThat(wheel.advance(T0 + 3 * TICK)).containsExactly("k");
+        assertThat(wheel.advance(T0 + 19 * TICK)).isEmpty();
+        assertThat(wheel.advance(T0 + 20 * TICK)).containsExactly("k");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        wheel.advance(T0 + 5 * TICK);
+        wheel.schedule("late", T0 + TICK);
+
+        assertThat(wheel.advance(T0 + 6 * TICK)).containsExactly("late");
+    }
+
+    /** Advances one tick at a time and returns the tick at which {@code key} fired, or -1. */
+    private long firingTick(String key, int maxTick) {
+        for (int tick = 1; tick <= maxTick; tick++) {
+            List<String> fired = wheel.advance(T0 + tick * TICK);
+            if (fired.contains(key)) {
+                return tick;
+            }
+        }
+        return -1;
+    }
+}
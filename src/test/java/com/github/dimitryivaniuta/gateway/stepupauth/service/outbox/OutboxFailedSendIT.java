@@ -0,0 +1,95 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.service.decision.DecisionBatchWriter;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * A failed Kafka send is recorded on the row: {@code FAILED}, one attempt, the error and a retry time
+ * in the future.
+ */
+@Testcontainers
+@SpringBootTest
+class OutboxFailedSendIT {
+
+    @SuppressWarnings("resource")
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+                    .withDatabaseName("stepup")
+                    .withUsername("stepup")
+                    .withPassword("stepup");
+
+    @SuppressWarnings("resource")
+    @Container
+    static GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7"))
+                    .withExposedPorts(6379);
+
+    @MockitoBean
+    private KafkaTemplate<String, String> kafka;
+
+    @Autowired
+    private OutboxPublisher publisher;
+
+    @Autowired
+    private DecisionBatchWriter batchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.task.scheduling.enabled", () -> "false");
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+        r.add("spring.data.redis.host", redis::getHost);
+        r.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        r.add("spring.kafka.admin.auto-create", () -> false);
+        r.add("app.outbox.enabled", () -> true);
+        r.add("app.outbox.notify.enabled", () -> false);
+    }
+
+    @Test
+    void failedSendIsMarkedFailedWithBackoff() {
+        when(kafka.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker down")));
+        UUID aggregate = UUID.randomUUID();
+        batchWriter.insertOutbox(List.of(DecisionBatchWriter.outboxRow(aggregate, "RISK_DECISION_MADE", "{}",
+                Instant.now())));
+
+        publisher.publishDueEvents();
+
+        Map<String, Object> row = jdbc.queryForMap(
+                "select status, attempts, last_error, next_attempt_at from outbox_event where aggregate_id = ?",
+                aggregate);
+        assertThat(row.get("status")).isEqualTo("FAILED");
+        assertThat(row.get("attempts")).isEqualTo(1);
+        assertThat((String) row.get("last_error")).contains("broker down");
+        assertThat(((Timestamp) row.get("next_attempt_at")).toInstant()).isAfter(Instant.now());
+    }
+}
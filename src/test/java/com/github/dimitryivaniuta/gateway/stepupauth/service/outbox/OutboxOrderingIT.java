@@ -0,0 +1,95 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+/**
+ * Events of one aggregate are published in insertion order even when a later row carries a lower id
+ * (a pooled id block reserved before a JDBC insert took a fresh {@code nextval}).
+ */
+@Testcontainers
+@SpringBootTest
+class OutboxOrderingIT {
+
+    @SuppressWarnings("resource")
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+                    .withDatabaseName("stepup")
+                    .withUsername("stepup")
+                    .withPassword("stepup");
+
+    @SuppressWarnings("resource")
+    @Container
+    static GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7"))
+                    .withExposedPorts(6379);
+
+    @MockitoBean
+    private KafkaTemplate<String, String> kafka;
+
+    @Autowired
+    private OutboxPublisher publisher;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.task.scheduling.enabled", () -> "false");
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+        r.add("spring.data.redis.host", redis::getHost);
+        r.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        r.add("spring.kafka.admin.auto-create", () -> false);
+        r.add("app.outbox.enabled", () -> true);
+        r.add("app.outbox.notify.enabled", () -> false);
+    }
+
+    @Test
+    void publishesInInsertionOrderWhateverTheIds() {
+        when(kafka.send(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        UUID aggregate = UUID.randomUUID();
+        insert(1_000_000L, aggregate, "{\"type\":\"STEP_UP_REQUIRED\"}");
+        insert(10L, aggregate, "{\"type\":\"STEP_UP_VERIFIED\"}");
+
+        publisher.publishDueEvents();
+
+        InOrder order = inOrder(kafka);
+        order.verify(kafka).send(anyString(), eq(aggregate.toString()), eq("{\"type\": \"STEP_UP_REQUIRED\"}"));
+        order.verify(kafka).send(anyString(), eq(aggregate.toString()), eq("{\"type\": \"STEP_UP_VERIFIED\"}"));
+        assertThat(jdbc.queryForObject(
+                "select count(*) from outbox_event where aggregate_id = ? and status = 'PUBLISHED'", Long.class,
+                aggregate)).isEqualTo(2L);
+    }
+
+    private void insert(long id, UUID aggregate, String payload) {
+        jdbc.update("""
+                insert into outbox_event (id, aggregate_id, event_type, payload_json, status, attempts,
+                                          next_attempt_at, created_at)
+                values (?, ?, 'MONITORING', cast(? as jsonb), 'NEW', 0, now(), now())
+                """, id, aggregate, payload);
+    }
+}
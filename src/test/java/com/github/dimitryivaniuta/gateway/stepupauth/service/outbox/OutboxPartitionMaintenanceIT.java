@@ -0,0 +1,92 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.outbox;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.OutboxProperties;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retention of daily {@code outbox_event} partitions against a real Postgres with the Flyway schema
+ * (which includes the default partition).
+ */
+@Testcontainers
+class OutboxPartitionMaintenanceIT {
+
+    @SuppressWarnings("resource")
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+                    .withDatabaseName("stepup")
+                    .withUsername("stepup")
+                    .withPassword("stepup");
+
+    private static JdbcTemplate jdbc;
+    private static OutboxPartitionMaintenance maintenance;
+
+    @BeforeAll
+    static void setup() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+
+        OutboxProperties props = new OutboxProperties(true, 500, Duration.ofSeconds(30), 8, 4,
+                Duration.ofSeconds(30), null, null, new OutboxProperties.Partitions(7, Duration.ofDays(7)));
+        maintenance = new OutboxPartitionMaintenance(jdbc, props);
+
+        // The history partition covers everything before the migration day; make room for old daily ones.
+        jdbc.execute("alter table outbox_event detach partition outbox_event_history");
+        jdbc.execute("drop table outbox_event_history");
+    }
+
+    @Test
+    void dropsExpiredPublishedPartitionAndKeepsPendingOne() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        String published = createDay(today.minusDays(30));
+        String pending = createDay(today.minusDays(29));
+        insert(today.minusDays(30), "PUBLISHED");
+        insert(today.minusDays(29), "NEW");
+
+        maintenance.maintain();
+
+        assertThat(exists(published)).isFalse();
+        assertThat(exists(pending)).isTrue();
+        assertThat(exists("outbox_event_default")).isTrue();
+        assertThat(exists("outbox_event_p" + DateTimeFormatter.BASIC_ISO_DATE.format(today.plusDays(7)))).isTrue();
+    }
+
+    private static String createDay(LocalDate day) {
+        String name = "outbox_event_p" + DateTimeFormatter.BASIC_ISO_DATE.format(day);
+        jdbc.execute("create table " + name + " partition of outbox_event for values from ('"
+                + day.atStartOfDay(ZoneOffset.UTC).toInstant() + "') to ('"
+                + day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() + "')");
+        return name;
+    }
+
+    private static void insert(LocalDate day, String status) {
+        jdbc.update("""
+                insert into outbox_event (aggregate_id, event_type, payload_json, status, created_at)
+                values (gen_random_uuid(), 'RISK_DECISION_MADE', '{}'::jsonb, ?, ?::timestamptz)
+                """, status, day.atTime(12, 0).atOffset(ZoneOffset.UTC).toString());
+    }
+
+    private static boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("select to_regclass(?) is not null", Boolean.class, table));
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.paging;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.api.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final Instant AT = Instant.parse("2026-03-01T10:00:00.123456789Z");
+
+    @Test
+    void roundTripsUuidAndLongIdsAtFullPrecision() {
+        UUID id = UUID.randomUUID();
+
+        KeysetCursor uuid = KeysetCursor.decode(KeysetCursor.encode(AT, id));
+        KeysetCursor number = KeysetCursor.decode(KeysetCursor.encode(Instant.EPOCH.minusNanos(1), 42L));
+
+        assertThat(uuid.createdAt()).isEqualTo(AT);
+        assertThat(uuid.uuid()).isEqualTo(id);
+        assertThat(number.createdAt()).isEqualTo(Instant.EPOCH.minusNanos(1));
+        assertThat(number.longId()).isEqualTo(42L);
+    }
+
+    @Test
+    void isUrlSafe() {
+        assertThat(KeysetCursor.encode(AT, UUID.randomUUID())).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void blankMeansFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsCursorsItDidNotProduce() {
+        assertInvalid(() -> KeysetCursor.decode("not base64!"));
+        assertInvalid(() -> KeysetCursor.decode(raw("v2|1|0|42")));
+        assertInvalid(() -> KeysetCursor.decode(raw("v1|1|0")));
+        assertInvalid(() -> KeysetCursor.decode(raw("v1|one|0|42")));
+        assertInvalid(() -> KeysetCursor.decode(raw("v1|" + Long.MAX_VALUE + "|0|42")));
+    }
+
+    @Test
+    void rejectsAnIdOfTheWrongKind() {
+        KeysetCursor number = KeysetCursor.decode(KeysetCursor.encode(AT, 42L));
+        KeysetCursor uuid = KeysetCursor.decode(KeysetCursor.encode(AT, UUID.randomUUID()));
+
+        assertInvalid(number::uuid);
+        assertInvalid(uuid::longId);
+    }
+
+    private static String raw(String s) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.status()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
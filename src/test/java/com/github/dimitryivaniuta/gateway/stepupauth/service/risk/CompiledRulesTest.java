@@ -0,0 +1,81 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link CompiledRules}.
+ */
+class CompiledRulesTest {
+
+    private static final long NEW_DEVICE = RiskSignal.NEW_DEVICE.bit();
+
+    @Test
+    void scopedRulesApplyOnlyInTheirScopeAndUnknownScopesFallBackToWildcard() {
+        CompiledRules rules = CompiledRules.compile(new RiskRuleSet("v1", 100, Map.of(), List.of(
+                rule("any", null, null, List.of(RiskSignal.NEW_DEVICE), null, 10),
+                rule("payout", List.of("PAYOUT"), null, null, null, 20),
+                rule("de", null, List.of("DE"), null, null, 5),
+                rule("payout-de", List.of("PAYOUT"), List.of("DE"), null, null, 7))));
+
+        assertThat(rules.score("TRANSFER", "US", NEW_DEVICE, null).score()).isEqualTo(10);
+        assertThat(rules.score("PAYOUT", "US", NEW_DEVICE, null).score()).isEqualTo(30);
+        assertThat(rules.score("TRANSFER", "DE", NEW_DEVICE, null).score()).isEqualTo(15);
+        assertThat(rules.score("PAYOUT", "DE", NEW_DEVICE, null).score()).isEqualTo(42);
+        assertThat(rules.score("PAYOUT", "DE", 0, null).score()).isEqualTo(32);
+        assertThat(rules.score("UNKNOWN", "FR", NEW_DEVICE, null).score()).isEqualTo(10);
+        assertThat(rules.score(null, null, NEW_DEVICE, null).score()).isEqualTo(10);
+        assertThat(rules.score("PAYOUT", "DE", NEW_DEVICE, null).reasons()).isEqualTo("any,payout,de,payout-de");
+    }
+
+    @Test
+    void amountTiersAreInclusiveLowerBounds() {
+        CompiledRules rules = CompiledRules.compile(new RiskRuleSet("v1", 100, Map.of(), List.of(
+                rule("high", null, null, null, new BigDecimal("1000.00"), 30),
+                rule("very-high", null, null, null, new BigDecimal("10000.00"), 20))));
+
+        assertThat(rules.score(null, null, 0, null).score()).isZero();
+        assertThat(rules.score(null, null, 0, new BigDecimal("999.99")).score()).isZero();
+        assertThat(rules.score(null, null, 0, new BigDecimal("1000")).score()).isEqualTo(30);
+        assertThat(rules.score(null, null, 0, new BigDecimal("5000.00")).score()).isEqualTo(30);
+        assertThat(rules.score(null, null, 0, new BigDecimal("10000.00")).score()).isEqualTo(50);
+        assertThat(rules.score(null, null, 0, new BigDecimal("1000000")).score()).isEqualTo(50);
+    }
+
+    @Test
+    void perActionThresholdOverridesTheDefault() {
+        CompiledRules rules = CompiledRules.compile(new RiskRuleSet("v1", 70, Map.of("PAYOUT", 40), List.of(
+                rule("new-device", null, null, List.of(RiskSignal.NEW_DEVICE), null, 50))));
+
+        RiskAssessment transfer = rules.score("TRANSFER", null, NEW_DEVICE, null);
+        assertThat(transfer.stepUpRequired()).isFalse();
+        assertThat(transfer.level()).isEqualTo(RiskLevel.MEDIUM);
+
+        RiskAssessment payout = rules.score("PAYOUT", null, NEW_DEVICE, null);
+        assertThat(payout.stepUpRequired()).isTrue();
+        assertThat(payout.level()).isEqualTo(RiskLevel.HIGH);
+    }
+
+    @Test
+    void rejectsInvalidRuleSets() {
+        assertThatThrownBy(() -> CompiledRules.compile(new RiskRuleSet("v1", 70, Map.of(), List.of(
+                rule("dup", null, null, null, null, 1),
+                rule("dup", null, null, null, null, 2)))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledRules.compile(new RiskRuleSet("v1", 0, Map.of(), List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledRules.compile(new RiskRuleSet("v1", 70, Map.of(), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RiskRuleSet.Rule rule(String id, List<String> actions, List<String> countries,
+                                         List<RiskSignal> signals, BigDecimal amountAtLeast, int score) {
+        return new RiskRuleSet.Rule(id, actions, countries, signals, amountAtLeast, score, null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.RiskRulesProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link RiskRulesLoader}.
+ */
+class RiskRulesLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void badFileKeepsTheInstalledRules() throws Exception {
+        Path file = dir.resolve("rules.json");
+        Files.writeString(file, """
+                {"version": "good", "stepUpThreshold": 70,
+                 "rules": [{"id": "high-amount", "amountAtLeast": 1000, "score": 80}]}
+                """);
+        RiskEngine engine = new RiskEngine();
+        RiskRulesLoader loader = new RiskRulesLoader(engine, new ObjectMapper(), new DefaultResourceLoader(),
+                new RiskRulesProperties("file:" + file, Duration.ofSeconds(10)), new SimpleMeterRegistry());
+
+        assertThat(loader.reload().version()).isEqualTo("good");
+
+        Files.writeString(file, """
+                {"version": "bad", "stepUpThreshold": 70,
+                 "rules": [{"id": "dup", "score": 1}, {"id": "dup", "score": 2}]}
+                """);
+        assertThatThrownBy(loader::reload).isInstanceOf(IllegalArgumentException.class);
+        Files.writeString(file, "{ not json");
+        assertThatThrownBy(loader::reload).isInstanceOf(Exception.class);
+
+        assertThat(engine.rulesInfo().version()).isEqualTo("good");
+        assertThat(engine.assess(null, null, 0, new BigDecimal("5000")).stepUpRequired()).isTrue();
+    }
+
+    @Test
+    void exampleRuleSetCompiles() throws Exception {
+        RiskEngine engine = new RiskEngine();
+        RiskRulesLoader loader = new RiskRulesLoader(engine, new ObjectMapper(), new DefaultResourceLoader(),
+                new RiskRulesProperties("classpath:risk/rules.json", Duration.ofSeconds(10)), new SimpleMeterRegistry());
+
+        assertThat(loader.reload().rules()).isPositive();
+    }
+}
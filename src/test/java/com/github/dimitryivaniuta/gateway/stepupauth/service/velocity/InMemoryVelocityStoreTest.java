@@ -0,0 +1,114 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link InMemoryVelocityStore}, driven by a synthetic clock.
+ */
+class InMemoryVelocityStoreTest {
+
+    private static final long MINUTE = 29_000_000L;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void raisesUserVelocityWithinTheWindowOnly() {
+        InMemoryVelocityStore store = store(100, limits(3, 0, 0));
+        UUID user = UUID.randomUUID();
+
+        assertThat(store.record(user, device(1), AMOUNT, at(MINUTE))).isZero();
+        assertThat(store.record(user, device(1), AMOUNT, at(MINUTE) + 10_000)).isZero();
+        assertThat(has(store.record(user, device(1), AMOUNT, at(MINUTE) + 20_000), RiskSignal.HIGH_VELOCITY)).isTrue();
+        assertThat(has(store.record(user, device(1), AMOUNT, at(MINUTE + 1)), RiskSignal.HIGH_VELOCITY)).isFalse();
+    }
+
+    @Test
+    void recyclesTheLeastRecentlyUsedDeviceSlot() {
+        InMemoryVelocityStore store = store(100, limits(0, 0, 2));
+        UUID user = UUID.randomUUID();
+        for (int d = 1; d <= InMemoryVelocityStore.DEVICE_SLOTS; d++) {
+            store.record(user, device(d), AMOUNT, at(MINUTE + d));
+        }
+        // A fifth device takes the slot of device 1, the least recently seen.
+        store.record(user, device(5), AMOUNT, at(MINUTE + 5));
+
+        long stillTracked = store.record(user, device(4), AMOUNT, at(MINUTE + 6));
+        long recycled = store.record(user, device(1), AMOUNT, at(MINUTE + 6));
+
+        assertThat(has(stillTracked, RiskSignal.DEVICE_VELOCITY)).isTrue();
+        assertThat(has(recycled, RiskSignal.DEVICE_VELOCITY)).isFalse();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyActiveUserAtTheCap() {
+        InMemoryVelocityStore store = store(10, limits(0, 2, 0));
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(UUID.randomUUID());
+            store.record(users.get(i), device(1), AMOUNT, at(MINUTE + i));
+        }
+
+        // A new user evicts users[0] (oldest minute) instead of going untracked.
+        UUID newcomer = UUID.randomUUID();
+        store.record(newcomer, device(1), AMOUNT, at(MINUTE + 10));
+        assertThat(has(store.record(newcomer, device(1), AMOUNT, at(MINUTE + 10)), RiskSignal.HIGH_VELOCITY))
+                .isTrue();
+        assertThat(registry.get("risk.velocity.evictions").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("risk.velocity.users").gauge().value()).isEqualTo(10.0);
+
+        // users[1] kept its history; users[0] starts from scratch (and evicts users[2]).
+        assertThat(has(store.record(users.get(1), device(1), AMOUNT, at(MINUTE + 11)), RiskSignal.HIGH_VELOCITY))
+                .isTrue();
+        assertThat(has(store.record(users.get(0), device(1), AMOUNT, at(MINUTE + 11)), RiskSignal.HIGH_VELOCITY))
+                .isFalse();
+        assertThat(registry.get("risk.velocity.evictions").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void evictsOnlyPartOfATiedCohort() {
+        InMemoryVelocityStore store = store(10, limits(0, 0, 0));
+        for (int i = 0; i < 10; i++) {
+            store.record(UUID.randomUUID(), device(1), AMOUNT, at(MINUTE));
+        }
+
+        store.record(UUID.randomUUID(), device(1), AMOUNT, at(MINUTE + 1));
+
+        assertThat(registry.get("risk.velocity.evictions").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("risk.velocity.users").gauge().value()).isEqualTo(10.0);
+    }
+
+    private InMemoryVelocityStore store(int maxUsers, VelocityProperties.Limits limits) {
+        return new InMemoryVelocityStore(
+                new VelocityProperties(true, VelocityProperties.Store.MEMORY, maxUsers, limits), registry);
+    }
+
+    /** Count limits only: user per minute, user per 60 minutes, device per 10 minutes. */
+    private static VelocityProperties.Limits limits(int user1m, int user60m, int device10m) {
+        return new VelocityProperties.Limits(user1m, 0, user60m, BigDecimal.ZERO, BigDecimal.ZERO, device10m);
+    }
+
+    private static byte[] device(int n) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) n;
+        return hash;
+    }
+
+    private static long at(long minute) {
+        return minute * 60_000;
+    }
+
+    private static boolean has(long signals, RiskSignal signal) {
+        return (signals & signal.bit()) != 0;
+    }
+}
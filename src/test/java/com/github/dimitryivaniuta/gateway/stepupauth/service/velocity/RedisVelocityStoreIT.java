@@ -0,0 +1,103 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import com.github.dimitryivaniuta.gateway.stepupauth.config.props.VelocityProperties;
+import com.github.dimitryivaniuta.gateway.stepupauth.service.risk.RiskSignal;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code redis/velocity-record.lua} against a real Redis: ring slots are reset when a later minute
+ * claims them, and a user's hash stays bounded however sparse the traffic.
+ */
+@Testcontainers
+class RedisVelocityStoreIT {
+
+    private static final long MINUTE = 29_000_000L;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @SuppressWarnings("resource")
+    @Container
+    static GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7"))
+                    .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate template;
+    private static RedisVelocityStore store;
+
+    @BeforeAll
+    static void setup() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new StringRedisTemplate(connectionFactory);
+        // 2 per user in 60 minutes, 2 per device in 10 minutes.
+        var limits = new VelocityProperties.Limits(0, 0, 2, BigDecimal.ZERO, BigDecimal.ZERO, 2);
+        store = new RedisVelocityStore(template,
+                new VelocityProperties(true, VelocityProperties.Store.REDIS, 1, limits));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void userSlotIsResetAfterAFullTurn() {
+        UUID user = UUID.randomUUID();
+
+        assertThat(has(store.record(user, device(1), AMOUNT, at(MINUTE)), RiskSignal.HIGH_VELOCITY)).isFalse();
+        // Same slot, one full ring later: the first record is outside the window.
+        assertThat(has(store.record(user, device(2), AMOUNT, at(MINUTE + 60)), RiskSignal.HIGH_VELOCITY)).isFalse();
+        assertThat(has(store.record(user, device(3), AMOUNT, at(MINUTE + 61)), RiskSignal.HIGH_VELOCITY)).isTrue();
+    }
+
+    @Test
+    void deviceSlotIsResetAfterAFullTurn() {
+        UUID user = UUID.randomUUID();
+
+        store.record(user, device(1), AMOUNT, at(MINUTE));
+        assertThat(has(store.record(user, device(1), AMOUNT, at(MINUTE + 10)), RiskSignal.DEVICE_VELOCITY))
+                .isFalse();
+        assertThat(has(store.record(user, device(1), AMOUNT, at(MINUTE + 11)), RiskSignal.DEVICE_VELOCITY))
+                .isTrue();
+    }
+
+    @Test
+    void sparseTrafficKeepsTheHashBounded() {
+        UUID user = UUID.randomUUID();
+        for (int i = 0; i < 500; i += 7) {
+            store.record(user, device(1), AMOUNT, at(MINUTE + i));
+        }
+
+        assertThat(template.opsForHash().size("vel:{" + user + "}")).isLessThanOrEqualTo(3 * 60);
+    }
+
+    private static byte[] device(int n) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) n;
+        return hash;
+    }
+
+    private static long at(long minute) {
+        return minute * 60_000;
+    }
+
+    private static boolean has(long signals, RiskSignal signal) {
+        return (signals & signal.bit()) != 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.dimitryivaniuta.gateway.stepupauth.service.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link VelocityRing}: tagged slots, wrap-around and saturation.
+ */
+class VelocityRingTest {
+
+    private static final long MINUTE = 29_000_000L;
+    private static final long VALUE_MAX = (1L << 40) - 1;
+
+    private final VelocityRing ring = new VelocityRing();
+
+    @Test
+    void countsPerMinute() {
+        ring.add(MINUTE, 1_000);
+        ring.add(MINUTE, 250);
+        ring.add(MINUTE + 1, 0);
+
+        assertThat(ring.count(MINUTE)).isEqualTo(2);
+        assertThat(ring.amount(MINUTE)).isEqualTo(1_250);
+        assertThat(ring.count(MINUTE + 1)).isEqualTo(1);
+        assertThat(ring.amount(MINUTE + 1)).isZero();
+        assertThat(ring.count(MINUTE - 1)).isZero();
+    }
+
+    @Test
+    void laterMinuteResetsTheSharedSlot() {
+        ring.add(MINUTE, 500);
+        ring.add(MINUTE, 500);
+
+        ring.add(MINUTE + VelocityRing.SLOTS, 100);
+
+        assertThat(ring.count(MINUTE + VelocityRing.SLOTS)).isEqualTo(1);
+        assertThat(ring.amount(MINUTE + VelocityRing.SLOTS)).isEqualTo(100);
+        assertThat(ring.count(MINUTE)).isZero();
+        assertThat(ring.amount(MINUTE)).isZero();
+    }
+
+    @Test
+    void amountSaturatesWithoutCorruptingTheTag() {
+        for (int i = 0; i < 300; i++) {
+            ring.add(MINUTE, Long.MAX_VALUE);
+        }
+
+        assertThat(ring.amount(MINUTE)).isEqualTo(VALUE_MAX);
+        assertThat(ring.count(MINUTE)).isEqualTo(300);
+        assertThat(ring.amount(MINUTE + 1)).isZero();
+    }
+
+    @Test
+    void clearDropsEverything() {
+        ring.add(MINUTE, 100);
+
+        ring.clear();
+
+        assertThat(ring.count(MINUTE)).isZero();
+        assertThat(ring.amount(MINUTE)).isZero();
+    }
+}